@@ -2,8 +2,12 @@ package com.ecobazzar.ecobazzar;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableCaching
 public class EcoBazzarAppApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,59 @@
+package com.ecobazzar.ecobazzar.config;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Tags every log line of a request with a correlation id, taken from {@code X-Request-Id} when the
+ * caller (or a proxy) sent a sane one and generated otherwise, and echoes it in the response.
+ * Runs ahead of the security chain so JWT and auth logging carry the id too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "correlationId";
+
+    private static final String ATTRIBUTE = CorrelationIdFilter.class.getName() + ".id";
+    private static final Pattern VALID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // an async dispatch keeps the id chosen on the request's first pass
+        String id = (String) request.getAttribute(ATTRIBUTE);
+        if (id == null) {
+            id = request.getHeader(HEADER);
+            if (id == null || !VALID.matcher(id).matches()) {
+                id = UUID.randomUUID().toString();
+            }
+            request.setAttribute(ATTRIBUTE, id);
+            response.setHeader(HEADER, id);
+        }
+        MDC.put(MDC_KEY, id);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    // async dispatches (CompletableFuture results) run the filter again on another thread
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+}
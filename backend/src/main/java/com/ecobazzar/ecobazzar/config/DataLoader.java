@@ -1,5 +1,7 @@
 package com.ecobazzar.ecobazzar.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,12 +10,15 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.ecobazzar.ecobazzar.model.User;
 import com.ecobazzar.ecobazzar.repository.UserRepository;
+import com.ecobazzar.ecobazzar.service.PlatformTotalsService;
 
 @Configuration
 public class DataLoader {
+
+	private static final Logger log = LoggerFactory.getLogger(DataLoader.class);
 	
 	@Bean
-	CommandLineRunner loadData(UserRepository userRepository, PasswordEncoder encoder) {
+	CommandLineRunner loadData(UserRepository userRepository, PasswordEncoder encoder, PlatformTotalsService platformTotals) {
 		return args->{
 			if(userRepository.findByEmail("admin@ecobazzar.com").isEmpty()) {
 				User admin = new User();
@@ -23,11 +28,12 @@ public class DataLoader {
 				admin.setRole("ROLE_ADMIN");
 				admin.setEcoScore(0);
 				userRepository.save(admin);
+				platformTotals.userAdded();
 				
-				System.out.println("Admin Created Successfully: admin@ecobazzar.com/Admin@123");
+				log.info("Default admin created: admin@ecobazzar.com (change the default password)");
 			
 			}else {
-				System.out.println("Admin user already exists");
+				log.debug("Default admin already exists");
 			}
 		};
 	}
@@ -0,0 +1,47 @@
+package com.ecobazzar.ecobazzar.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Moves the table-backed id sequences past the ids already in use.
+ * Needed once for databases created while the tables were still on AUTO_INCREMENT ids;
+ * afterwards it is a no-op because GREATEST keeps the stored value.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceAligner {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    // keep in sync with the @SequenceGenerator declarations on the entities
+    private static final int ALLOCATION_SIZE = 50;
+    private static final String[][] SEQUENCES = {
+            {"order_items_seq", "order_items"},
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        for (String[] seq : SEQUENCES) {
+            try {
+                // the pooled optimizer hands out (next_val - allocationSize, next_val], so stay a full block ahead
+                jdbcTemplate.update("UPDATE " + seq[0] + " SET next_val = GREATEST(next_val, "
+                        + "(SELECT COALESCE(MAX(id), 0) + " + (ALLOCATION_SIZE + 1) + " FROM " + seq[1] + "))");
+            } catch (DataAccessException e) {
+                log.warn("Could not align id sequence {}: {}", seq[0], e.getMessage());
+            }
+        }
+    }
+}
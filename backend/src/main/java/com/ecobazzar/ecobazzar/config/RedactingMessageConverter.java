@@ -0,0 +1,40 @@
+package com.ecobazzar.ecobazzar.config;
+
+import java.util.regex.Pattern;
+
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * {@code %redactedMsg}: the formatted message with JWTs, BCrypt hashes and password assignments
+ * masked, so a careless log statement cannot leak credentials. Runs on the async appender's worker
+ * thread, and messages without any of the trigger substrings skip the regexes entirely.
+ */
+public class RedactingMessageConverter extends MessageConverter {
+
+    private static final Pattern JWT = Pattern.compile("eyJ[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]*");
+    private static final Pattern BCRYPT = Pattern.compile("\\$2[abxy]?\\$\\d{2}\\$[./A-Za-z0-9]{53}");
+    private static final Pattern PASSWORD = Pattern.compile("(?i)(password\\s*[=:]\\s*)\\S+");
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        return redact(super.convert(event));
+    }
+
+    static String redact(String message) {
+        if (message == null) return null;
+        if (message.contains("eyJ")) message = JWT.matcher(message).replaceAll("[jwt]");
+        if (message.contains("$2")) message = BCRYPT.matcher(message).replaceAll("[bcrypt]");
+        if (containsIgnoreCase(message, "password")) {
+            message = PASSWORD.matcher(message).replaceAll("$1***");
+        }
+        return message;
+    }
+
+    private static boolean containsIgnoreCase(String s, String needle) {
+        for (int i = 0; i + needle.length() <= s.length(); i++) {
+            if (s.regionMatches(true, i, needle, 0, needle.length())) return true;
+        }
+        return false;
+    }
+}
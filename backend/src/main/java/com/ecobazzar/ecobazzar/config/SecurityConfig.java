@@ -1,13 +1,16 @@
 package com.ecobazzar.ecobazzar.config;
 
+import com.ecobazzar.ecobazzar.security.CatalogReadMatcher;
 import com.ecobazzar.ecobazzar.security.JwtFilter;
+import com.ecobazzar.ecobazzar.security.RouteAuthorizationManager;
 
 import jakarta.servlet.http.HttpServletResponse;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpMethod;
-import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -21,53 +24,44 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import java.util.List;
 
 @Configuration
-@EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
     private final JwtFilter jwtFilter;
+    private final RouteAuthorizationManager routeAuthorization;
 
-    public SecurityConfig(JwtFilter jwtFilter) {
+    public SecurityConfig(JwtFilter jwtFilter, RouteAuthorizationManager routeAuthorization) {
         this.jwtFilter = jwtFilter;
+        this.routeAuthorization = routeAuthorization;
     }
 
+    // Anonymous catalog reads: no security context, no anonymous token, no JWT parsing, no
+    // authorization check. Only CORS and the security headers stay.
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    @Order(1)
+    public SecurityFilterChain catalogReadChain(HttpSecurity http) throws Exception {
       http
+        .securityMatcher(new CatalogReadMatcher())
         .cors(cors -> cors.configurationSource(corsConfigurationSource()))
         .csrf(csrf -> csrf.disable())
-        .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-        .authorizeHttpRequests(auth -> auth
-          // Auth endpoints
-          .requestMatchers("/api/auth/register", "/api/auth/login").permitAll()
-
-          // Swagger
-          .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
-
-          // Public product browsing
-          .requestMatchers(HttpMethod.GET, "/api/products", "/api/products/**").permitAll()
-
-          // Reports (USER only)
-          .requestMatchers("/api/reports/user/**").hasRole("USER")
+        .securityContext(sc -> sc.disable())
+        .sessionManagement(sm -> sm.disable())
+        .anonymous(anon -> anon.disable())
+        .requestCache(rc -> rc.disable())
+        .exceptionHandling(ex -> ex.disable())
+        .logout(logout -> logout.disable());
 
-          // Seller endpoints
-          .requestMatchers(HttpMethod.GET, "/api/products/seller").hasAnyRole("SELLER", "ADMIN")
-          .requestMatchers(HttpMethod.POST, "/api/products/**").hasAnyRole("SELLER", "ADMIN")
-          .requestMatchers(HttpMethod.PUT,  "/api/products/**").hasAnyRole("SELLER", "ADMIN")
-          .requestMatchers(HttpMethod.DELETE,"/api/products/**").hasAnyRole("SELLER", "ADMIN")
-
-          // Admin endpoints
-          .requestMatchers("/api/admin/**").hasRole("ADMIN")
-          .requestMatchers("/api/admin-request/pending").hasRole("ADMIN")
-          .requestMatchers("/api/admin-request/approve/**").hasRole("ADMIN")
-          .requestMatchers("/api/admin-request/reject/**").hasRole("ADMIN")
-
-          // Eco-certification requests (any logged-in user)
-          .requestMatchers("/api/admin-request/request").authenticated()
-          .requestMatchers("/api/admin-request/has-pending").authenticated()
+      return http.build();
+    }
 
-          // Everything else must be authenticated
-          .anyRequest().authenticated()
-        )
+    @Bean
+    @Order(2)
+    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+      http
+        .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+        .csrf(csrf -> csrf.disable())
+        .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+        // every endpoint's access rule lives in RouteAuthorizationManager's route table
+        .authorizeHttpRequests(auth -> auth.anyRequest().access(routeAuthorization))
         .exceptionHandling(ex -> ex
           // 401 for missing/invalid token
           .authenticationEntryPoint((req, res, e) ->
@@ -81,9 +75,18 @@ public class SecurityConfig {
       return http.build();
     }
 
+    // JwtFilter is a @Component only so it can be injected; it must run inside the security chain,
+    // not a second time as a servlet filter in front of every request
+    @Bean
+    public FilterRegistrationBean<JwtFilter> jwtFilterRegistration(JwtFilter filter) {
+        FilterRegistrationBean<JwtFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -2,54 +2,51 @@ package com.ecobazzar.ecobazzar.controller;
 
 import com.ecobazzar.ecobazzar.dto.PendingProductDto;
 import com.ecobazzar.ecobazzar.dto.PendingSellerDto;
-import com.ecobazzar.ecobazzar.model.Product;
-import com.ecobazzar.ecobazzar.model.User;
-import com.ecobazzar.ecobazzar.repository.ProductRepository;
-import com.ecobazzar.ecobazzar.repository.UserRepository;
+import com.ecobazzar.ecobazzar.dto.ProductView;
+import com.ecobazzar.ecobazzar.dto.UserView;
 import com.ecobazzar.ecobazzar.service.AdminService;
+import com.ecobazzar.ecobazzar.service.DailyRollups;
+import com.ecobazzar.ecobazzar.service.OrderCsvExporter;
+import com.ecobazzar.ecobazzar.service.PlatformTotalsService;
+import com.ecobazzar.ecobazzar.service.TimeSeriesService;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
-@PreAuthorize("hasAuthority('ROLE_ADMIN')")
 public class AdminController {
 
     private final AdminService adminService;
-    private final UserRepository userRepository;
-    private final ProductRepository productRepository;
+    private final TimeSeriesService timeSeriesService;
 
-    public AdminController(AdminService adminService,
-                           ProductRepository productRepository,
-                           UserRepository userRepository) {
+    public AdminController(AdminService adminService, TimeSeriesService timeSeriesService) {
         this.adminService = adminService;
-        this.productRepository = productRepository;
-        this.userRepository = userRepository;
+        this.timeSeriesService = timeSeriesService;
     }
 
     @PutMapping("/approveProduct/{id}")
-    public Product approveProduct(@PathVariable Long id) {
+    public ProductView approveProduct(@PathVariable Long id) {
         return adminService.approveProduct(id);
     }
 
     @PutMapping("/approveSeller/{id}")
-    public User approveSeller(@PathVariable Long id) {
+    public UserView approveSeller(@PathVariable Long id) {
         return adminService.approveSeller(id);
     }
 
     @PutMapping("/rejectSeller/{id}")
-    public User rejectSeller(@PathVariable Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        user.setSellerRequestPending(false);
-        return userRepository.save(user);
+    public UserView rejectSeller(@PathVariable Long id) {
+        return adminService.rejectSeller(id);
     }
 
     @GetMapping("/reports")
@@ -57,41 +54,62 @@ public class AdminController {
         return adminService.getAdminReport();
     }
 
+    // platform-wide series: bucket=hour|day|week|month over [from, to), metrics=orders,revenue,carbonUsed,carbonSaved
+    @GetMapping("/reports/series")
+    public TimeSeriesService.Series getSeries(@RequestParam(defaultValue = "day") String bucket,
+                                              @RequestParam(required = false) String from,
+                                              @RequestParam(required = false) String to,
+                                              @RequestParam(required = false) String metrics) {
+        return timeSeriesService.query(TimeSeriesService.Scope.PLATFORM, null, bucket, from, to, metrics);
+    }
+
+    // recomputes the report totals from the order, user and product tables and says whether they had drifted
+    @PostMapping("/reports/reconcile")
+    public PlatformTotalsService.Reconciliation reconcileReports() {
+        return adminService.reconcileReport();
+    }
+
+    // rebuilds the per-day user and seller rollups for [from, to) from the order tables
+    @PostMapping("/reports/rollups/rebuild")
+    public DailyRollups.Backfill rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return adminService.rebuildDailyRollups(from, to);
+    }
+
     @GetMapping("/pending-products")
     public List<PendingProductDto> getPendingProducts() {
-        return productRepository.findByEcoRequestedTrue().stream()
-                .map(p -> new PendingProductDto(
-                        p.getId(),
-                        p.getName(),
-                        p.getPrice(),
-                        p.getCarbonImpact(),
-                        p.getSeller() != null ? p.getSeller().getName() : "Unknown"
-                ))
-                .toList();
+        return adminService.getPendingProducts();
     }
 
     @GetMapping("/pending-sellers")
     public List<PendingSellerDto> getPendingSellers() {
-        return userRepository.findBySellerRequestPendingTrue().stream()
-                .map(u -> new PendingSellerDto(
-                        u.getId(),
-                        u.getName(),
-                        u.getEmail(),
-                        productRepository.findBySeller_Id(u.getId()).size()
-                ))
-                .toList();
+        return adminService.getPendingSellers();
     }
 
     @PutMapping("/rejectProduct/{id}")
-    public Product rejectProduct(@PathVariable Long id) {
+    public ProductView rejectProduct(@PathVariable Long id) {
         return adminService.rejectProduct(id);
     }
 
-    @GetMapping(value = "/reports/export", produces = "text/csv")
-    public ResponseEntity<String> exportCsv() {
-        String csv = adminService.generateReportCSV();
-        return ResponseEntity.ok()
+    // streamed from a DB cursor in id order; resume an interrupted export with after=<last OrderId received>
+    @GetMapping("/reports/export")
+    public ResponseEntity<StreamingResponseBody> exportCsv(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        OrderCsvExporter.Range range = adminService.exportRange(from, to, after, limit);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders-report.csv\"")
-                .body(csv);
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(out -> adminService.writeReportCsv(out, range, gzip));
     }
 }
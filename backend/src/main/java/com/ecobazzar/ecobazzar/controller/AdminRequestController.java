@@ -1,13 +1,10 @@
 package com.ecobazzar.ecobazzar.controller;
 
 import com.ecobazzar.ecobazzar.dto.PendingAdminRequestDto;
-import com.ecobazzar.ecobazzar.model.AdminRequest;
-import com.ecobazzar.ecobazzar.model.User;
-import com.ecobazzar.ecobazzar.repository.UserRepository;
+import com.ecobazzar.ecobazzar.security.AuthenticatedUser;
 import com.ecobazzar.ecobazzar.service.AdminRequestService;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -19,21 +16,15 @@ import java.util.Map;
 public class AdminRequestController {
 
     private final AdminRequestService service;
-    private final UserRepository userRepository;
 
-    public AdminRequestController(AdminRequestService service, UserRepository userRepository) {
+    public AdminRequestController(AdminRequestService service) {
         this.service = service;
-        this.userRepository = userRepository;
     }
 
     // Any logged-in user can request to become admin
     @PostMapping("/request")
-    public ResponseEntity<Map<String, String>> requestAccess(Authentication auth) {
-        String email = auth.getName(); // JWT subject = email
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        service.requestAdminAccess(user.getId());
+    public ResponseEntity<Map<String, String>> requestAccess(@AuthenticationPrincipal AuthenticatedUser user) {
+        service.requestAdminAccess(user.userId());
 
         Map<String, String> response = new HashMap<>();
         response.put("message", "Admin access requested successfully");
@@ -41,21 +32,11 @@ public class AdminRequestController {
     }
 
     // Only admins can see pending requests
-    @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/pending")
     public List<PendingAdminRequestDto> getPending() {
-        return service.getPendingRequests().stream()
-            .map(req -> new PendingAdminRequestDto(
-                req.getId(),
-                req.getUser().getId(),
-                req.getUser().getName(),
-                req.getUser().getEmail(),
-                req.getRequestedAt()
-            ))
-            .toList();
+        return service.getPendingRequests();
     }
     // Approve → make user admin
-    @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("/approve/{id}")
     public ResponseEntity<Map<String, String>> approve(@PathVariable Long id) {
         service.approveRequest(id);
@@ -65,7 +46,6 @@ public class AdminRequestController {
     }
 
     // Reject request
-    @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("/reject/{id}")
     public ResponseEntity<Map<String, String>> reject(@PathVariable Long id) {
         service.rejectRequest(id);
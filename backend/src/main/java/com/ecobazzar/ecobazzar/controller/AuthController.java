@@ -1,36 +1,75 @@
 package com.ecobazzar.ecobazzar.controller;
 
 import com.ecobazzar.ecobazzar.dto.LoginRequest;
+import com.ecobazzar.ecobazzar.dto.RefreshRequest;
 import com.ecobazzar.ecobazzar.dto.RegisterRequest;
 import com.ecobazzar.ecobazzar.dto.UserResponse;
+import com.ecobazzar.ecobazzar.exception.TooManyRequestsException;
+import com.ecobazzar.ecobazzar.security.AuthRateLimiter;
 import com.ecobazzar.ecobazzar.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @CrossOrigin(origins = "http://localhost:4200")
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
     private final AuthService authService;
+    private final AuthRateLimiter rateLimiter;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, AuthRateLimiter rateLimiter) {
         this.authService = authService;
+        this.rateLimiter = rateLimiter;
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody RegisterRequest request,
+                                                         HttpServletRequest http) {
+        rateLimiter.acquire(http.getRemoteAddr(), request.getEmail());
         try {
-            return ResponseEntity.ok(authService.register(request));
+            return authService.register(request)
+                    .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                    .exceptionally(AuthController::badRequest);
+        } catch (TooManyRequestsException e) {
+            throw e;
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(e.getMessage()));
         }
     }
 
 
     @PostMapping("/login")
-    public ResponseEntity<UserResponse> login(@Valid @RequestBody LoginRequest request) {
-        return ResponseEntity.ok(authService.login(request));
+    public CompletableFuture<ResponseEntity<UserResponse>> login(@Valid @RequestBody LoginRequest request,
+                                                                 HttpServletRequest http) {
+        rateLimiter.acquire(http.getRemoteAddr(), request.getEmail());
+        return authService.login(request).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<UserResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        return ResponseEntity.ok(authService.refresh(request.refreshToken()));
+    }
+
+    // revokes the bearer token and, when sent, the refresh token; both stay dead until they would have expired
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                       @RequestBody(required = false) RefreshRequest request) {
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.refreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static ResponseEntity<?> badRequest(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RuntimeException re) {
+            return ResponseEntity.badRequest().body(re.getMessage());
+        }
+        throw new CompletionException(cause);
     }
 }
@@ -2,11 +2,9 @@ package com.ecobazzar.ecobazzar.controller;
 
 import com.ecobazzar.ecobazzar.dto.CartSummaryDto;
 import com.ecobazzar.ecobazzar.model.CartItem;
-import com.ecobazzar.ecobazzar.model.User;
-import com.ecobazzar.ecobazzar.repository.UserRepository;
+import com.ecobazzar.ecobazzar.security.AuthenticatedUser;
 import com.ecobazzar.ecobazzar.service.CartService;
-import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -14,45 +12,31 @@ import org.springframework.web.bind.annotation.*;
 public class CartController {
 
     private final CartService cartService;
-    private final UserRepository userRepository;
 
-    public CartController(CartService cartService, UserRepository userRepository) {
+    public CartController(CartService cartService) {
         this.cartService = cartService;
-        this.userRepository = userRepository;
     }
 
-    @PreAuthorize("hasRole('USER')")
     @PostMapping
-    public CartItem addToCart(@RequestBody CartItem cartItem, Authentication auth) {
-        User user = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        cartItem.setUserId(user.getId());
+    public CartItem addToCart(@RequestBody CartItem cartItem, @AuthenticationPrincipal AuthenticatedUser user) {
+        cartItem.setUserId(user.userId());
         return cartService.addToCart(cartItem);
     }
 
-    @PreAuthorize("hasRole('USER')")
     @GetMapping("/summary")
-    public CartSummaryDto getCartSummary(Authentication auth) {
-        User user = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return cartService.getCartSummary(user.getId());
+    public CartSummaryDto getCartSummary(@AuthenticationPrincipal AuthenticatedUser user) {
+        return cartService.getCartSummary(user.userId());
     }
 
-    @PreAuthorize("hasRole('USER')")
     @DeleteMapping("/{id}")
-    public String removeFromCart(@PathVariable Long id, Authentication auth) {
-        User user = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        cartService.removeFromCart(id, user.getId());
+    public String removeFromCart(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser user) {
+        cartService.removeFromCart(id, user.userId());
         return "Item removed from cart";
     }
 
-    @PreAuthorize("hasRole('USER')")
     @PostMapping("/swap")
-    public void swapToEco(@RequestBody SwapRequest request, Authentication auth) {
-        User user = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        cartService.swapToEco(user.getId(), request.cartItemId(), request.newProductId());
+    public void swapToEco(@RequestBody SwapRequest request, @AuthenticationPrincipal AuthenticatedUser user) {
+        cartService.swapToEco(user.userId(), request.cartItemId(), request.newProductId());
     }
 }
 
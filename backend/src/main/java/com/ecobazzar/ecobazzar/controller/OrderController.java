@@ -1,14 +1,11 @@
 package com.ecobazzar.ecobazzar.controller;
 
 import java.util.List;
-import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import com.ecobazzar.ecobazzar.model.Order;
-import com.ecobazzar.ecobazzar.model.User;
-import com.ecobazzar.ecobazzar.repository.UserRepository;
+import com.ecobazzar.ecobazzar.dto.OrderView;
+import com.ecobazzar.ecobazzar.security.AuthenticatedUser;
 import com.ecobazzar.ecobazzar.service.OrderService;
 
 @RestController
@@ -16,30 +13,18 @@ import com.ecobazzar.ecobazzar.service.OrderService;
 public class OrderController {
 
     private final OrderService orderService;
-    private final UserRepository userRepository;
 
-    public OrderController(OrderService orderService, UserRepository userRepository) {
+    public OrderController(OrderService orderService) {
         this.orderService = orderService;
-        this.userRepository = userRepository;
     }
 
-    @PreAuthorize("hasRole('USER')")
     @PostMapping("/checkout")
-    public Order checkout() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-        User currentUser = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        return orderService.checkout(currentUser.getId());
+    public OrderView checkout(@AuthenticationPrincipal AuthenticatedUser user) {
+        return orderService.checkout(user.userId());
     }
 
-    @PreAuthorize("hasRole('USER')")
     @GetMapping
-    public List<Order> getUserOrders() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-        User currentUser = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        return orderService.getOrdersByUserId(currentUser.getId());
+    public List<OrderView> getUserOrders(@AuthenticationPrincipal AuthenticatedUser user) {
+        return orderService.getOrdersByUserId(user.userId());
     }
 }
@@ -1,78 +1,96 @@
 package com.ecobazzar.ecobazzar.controller;
 
 import java.util.List;
-import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.ecobazzar.ecobazzar.dto.ProductPage;
+import com.ecobazzar.ecobazzar.dto.ProductView;
 
 import com.ecobazzar.ecobazzar.model.Product;
-import com.ecobazzar.ecobazzar.model.User;
-import com.ecobazzar.ecobazzar.repository.ProductRepository;
 import com.ecobazzar.ecobazzar.repository.UserRepository;
+import com.ecobazzar.ecobazzar.security.AuthenticatedUser;
+import com.ecobazzar.ecobazzar.security.Role;
+import com.ecobazzar.ecobazzar.service.ProductSearchIndex;
 import com.ecobazzar.ecobazzar.service.ProductService;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
-    private final ProductRepository productRepository;
     private final ProductService productService;
     private final UserRepository userRepository;
 
-    public ProductController(ProductService productService, UserRepository userRepository, ProductRepository productRepository) {
+    public ProductController(ProductService productService, UserRepository userRepository) {
         this.productService = productService;
         this.userRepository = userRepository;
-        this.productRepository = productRepository;
     }
 
-    @PreAuthorize("hasAnyRole('SELLER','ADMIN')")
     @PostMapping
-    public Product addProduct(@RequestBody Product product) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-        User seller = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Seller not found"));
-
-        product.setSeller(seller);
+    public ProductView addProduct(@RequestBody Product product, @AuthenticationPrincipal AuthenticatedUser user) {
+        // only the FK is needed, so a reference avoids loading the seller row
+        product.setSeller(userRepository.getReferenceById(user.userId()));
 
-        return productService.createProduct(product);
+        return ProductView.of(productService.createProduct(product));
     }
 
  
  // public marketplace -> show ALL products (including non-certified)
+    // streamed from a DB cursor so memory stays flat whatever the catalog size
     @GetMapping
-    public List<Product> listAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<StreamingResponseBody> listAllProducts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(productService::writeCatalogJson);
+    }
+
+    @GetMapping("/page")
+    public ProductPage listProductPage(@RequestParam(defaultValue = "id") String sort,
+                                       @RequestParam(defaultValue = "asc") String direction,
+                                       @RequestParam(defaultValue = "20") int size,
+                                       @RequestParam(required = false) String cursor) {
+        return productService.getProductPage(sort, direction, size, cursor);
     }
 
 
-    @PreAuthorize("hasAnyRole('SELLER','ADMIN')")
     @GetMapping("/seller")
-    public List<Product> listSellerProducts() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-        User seller = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("Seller not found"));
-        return productService.getProductsBySellerId(seller.getId());
+    public List<ProductView> listSellerProducts(@AuthenticationPrincipal AuthenticatedUser user) {
+        return productService.getProductsBySellerId(user.userId());
+    }
+
+    @GetMapping("/search")
+    public List<ProductView> searchProducts(@RequestParam(defaultValue = "") String q,
+                                            @RequestParam(required = false) Boolean ecoCertified,
+                                            @RequestParam(required = false) Double minPrice,
+                                            @RequestParam(required = false) Double maxPrice,
+                                            @RequestParam(required = false) Double minCarbon,
+                                            @RequestParam(required = false) Double maxCarbon,
+                                            @RequestParam(defaultValue = "20") int limit) {
+        var filter = new ProductSearchIndex.Filter(ecoCertified, minPrice, maxPrice, minCarbon, maxCarbon);
+        return productService.searchProducts(q, filter, limit);
+    }
+
+    @GetMapping("/eco")
+    public List<ProductView> listEcoCertifiedProducts() {
+        return productService.getEcoCertifiedProducts();
     }
 
     @GetMapping("/{id}")
-    public Product getProductById(@PathVariable Long id) {
-        return productService.getProductById(id);
+    public ProductView getProductById(@PathVariable Long id) {
+        return productService.getProductView(id);
     }
 
-    @PreAuthorize("hasAnyRole('SELLER','ADMIN')")
     @PutMapping("/{id}")
-    public Product updateProductDetails(@PathVariable Long id, @RequestBody Product incoming, Authentication auth) {
-        String email = auth.getName();
-        User current = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public ProductView updateProductDetails(@PathVariable Long id, @RequestBody Product incoming,
+                                            @AuthenticationPrincipal AuthenticatedUser current) {
         Product existing = productService.getProductById(id);
 
-        boolean isAdmin = current.getRole() != null && current.getRole().toUpperCase().contains("ADMIN");
+        boolean isAdmin = current.hasRole(Role.ADMIN);
         if (!isAdmin) {
-            if (existing.getSeller() == null || existing.getSeller().getId() != current.getId()) {
+            if (existing.getSeller() == null || existing.getSeller().getId() != current.userId()) {
                 throw new org.springframework.security.access.AccessDeniedException("You are not the owner of this product");
             }
         }
@@ -84,30 +102,28 @@ public class ProductController {
         existing.setImageUrl(incoming.getImageUrl());
         existing.setEcoRequested(incoming.getEcoRequested() == null ? existing.isEcoRequested() : incoming.getEcoRequested());
 
-        return productService.saveProduct(existing); // create a small save wrapper in service (see below)
+        return ProductView.of(productService.saveProduct(existing));
     }
 
 
-    @PreAuthorize("hasAnyRole('SELLER','ADMIN')")
     @DeleteMapping("/{id}")
     public void deleteProductDetails(@PathVariable Long id) {
         productService.deleteProductDetails(id);
     }
     
     @GetMapping("/ai/suggestions")
-    @PreAuthorize("hasRole('USER')")  
-    public List<Product> getAiEcoSuggestions(@RequestParam("productId") Long productId) {
-        Product current = productService.getProductById(productId);
+    public List<ProductView> getAiEcoSuggestions(@RequestParam("productId") Long productId) {
+        ProductView current = productService.getProductView(productId);
 
-        if (Boolean.TRUE.equals(current.getEcoCertified())) {
+        if (current.ecoCertified()) {
             return List.of();
         }
 
-        String searchTerm = extractKeyword(current.getName());
+        String searchTerm = extractKeyword(current.name());
 
-        return productRepository.findByEcoCertifiedTrueAndNameContainingIgnoreCase(searchTerm)
+        return productService.searchProducts(searchTerm, ProductSearchIndex.Filter.ECO_ONLY, 5)
                 .stream()
-                .filter(p -> !p.getId().equals(productId))
+                .filter(p -> !p.id().equals(productId))
                 .limit(4)
                 .toList();
     }
@@ -4,37 +4,47 @@ package com.ecobazzar.ecobazzar.controller;
 import java.util.List;
 import java.util.Map;
 
-import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.ecobazzar.ecobazzar.dto.SellerReport;
+import com.ecobazzar.ecobazzar.security.AuthenticatedUser;
 import com.ecobazzar.ecobazzar.service.SellerReportService;
+import com.ecobazzar.ecobazzar.service.TimeSeriesService;
 
 @RestController
 @RequestMapping("/api/reports/")
 public class SellerReportController {
 	
 	private final SellerReportService sellerReportService;
+	private final TimeSeriesService timeSeriesService;
 	
-	public SellerReportController(SellerReportService sellerReportService) {
+	public SellerReportController(SellerReportService sellerReportService, TimeSeriesService timeSeriesService) {
 		this.sellerReportService = sellerReportService;
+		this.timeSeriesService = timeSeriesService;
 	}
 	
-	@PreAuthorize("hasRole('SELLER')")
 	@GetMapping("/seller")
-	public SellerReport getSellerRepost(Authentication auth) {
-		String email = auth.getName();
-		return sellerReportService.getSellerReport(email);
+	public SellerReport getSellerRepost(@AuthenticationPrincipal AuthenticatedUser user) {
+		return sellerReportService.getSellerReport(user.userId());
 	}
 	
 	@GetMapping("/seller/sales")
-	@PreAuthorize("hasRole('SELLER')")
-	public List<Map<String,Object>> getSellerSales(Authentication auth, @RequestParam(defaultValue="7") int days){
-	    return sellerReportService.getSellerSales(auth.getName(), days);
+	public List<Map<String,Object>> getSellerSales(@AuthenticationPrincipal AuthenticatedUser user, @RequestParam(defaultValue="7") int days){
+	    return sellerReportService.getSellerSales(user.userId(), days);
+	}
+
+	// day|week|month buckets over [from, to); metrics=orders,revenue
+	@GetMapping("/seller/series")
+	public TimeSeriesService.Series getSellerSeries(@AuthenticationPrincipal AuthenticatedUser user,
+	                                                @RequestParam(defaultValue = "day") String bucket,
+	                                                @RequestParam(required = false) String from,
+	                                                @RequestParam(required = false) String to,
+	                                                @RequestParam(required = false) String metrics) {
+	    return timeSeriesService.query(TimeSeriesService.Scope.SELLER, user.userId(), bucket, from, to, metrics);
 	}
 
 
@@ -2,26 +2,31 @@
 package com.ecobazzar.ecobazzar.controller;
 
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import com.ecobazzar.ecobazzar.model.User;
 import com.ecobazzar.ecobazzar.repository.UserRepository;
+import com.ecobazzar.ecobazzar.security.AuditLog;
+import com.ecobazzar.ecobazzar.security.AuthenticatedUser;
+import com.ecobazzar.ecobazzar.service.UserIdentityCache;
 
 @RestController
 @RequestMapping("/api/seller-request")
 public class SellerRequestController {
 
     private final UserRepository userRepository;
+    private final UserIdentityCache identities;
+    private final AuditLog audit;
 
-    public SellerRequestController(UserRepository userRepository) {
+    public SellerRequestController(UserRepository userRepository, UserIdentityCache identities, AuditLog audit) {
         this.userRepository = userRepository;
+        this.identities = identities;
+        this.audit = audit;
     }
 
     @PostMapping("/request")
-    @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<String> requestSellerRole(Authentication auth) {
-        User user = userRepository.findByEmail(auth.getName())
+    public ResponseEntity<String> requestSellerRole(@AuthenticationPrincipal AuthenticatedUser principal) {
+        User user = userRepository.findById(principal.userId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if ("ROLE_SELLER".equals(user.getRole())) {
@@ -33,15 +38,16 @@ public class SellerRequestController {
 
         user.setSellerRequestPending(true);
         userRepository.save(user);
+        identities.evict(user.getId());
+        audit.requested("seller", user.getId());
 
         return ResponseEntity.ok("Seller request sent successfully");
     }
 
     @GetMapping("/has-pending")
-    @PreAuthorize("hasRole('USER')")
-    public boolean hasPendingRequest(Authentication auth) {
-        return userRepository.findByEmail(auth.getName())
-                .map(User::isSellerRequestPending)
+    public boolean hasPendingRequest(@AuthenticationPrincipal AuthenticatedUser principal) {
+        return identities.byId(principal.userId())
+                .map(UserIdentityCache.UserIdentity::sellerRequestPending)
                 .orElse(false);
     }
 }
\ No newline at end of file
@@ -1,86 +1,47 @@
 package com.ecobazzar.ecobazzar.controller;
 
 import com.ecobazzar.ecobazzar.dto.UserReport;
-import com.ecobazzar.ecobazzar.model.User;
-import com.ecobazzar.ecobazzar.repository.OrderRepository;
-import com.ecobazzar.ecobazzar.repository.UserRepository;
+import com.ecobazzar.ecobazzar.security.AuthenticatedUser;
+import com.ecobazzar.ecobazzar.service.TimeSeriesService;
 import com.ecobazzar.ecobazzar.service.UserReportService;
-import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.sql.Date;
-import java.time.LocalDate;
-import java.time.format.TextStyle;
-import java.util.*;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/reports")
 public class UserReportController {
 
     private final UserReportService userReportService;
-    private final UserRepository userRepository;
-    private final OrderRepository orderRepository;
+    private final TimeSeriesService timeSeriesService;
 
-    public UserReportController(UserReportService userReportService,
-                                UserRepository userRepository,
-                                OrderRepository orderRepository) {
+    public UserReportController(UserReportService userReportService, TimeSeriesService timeSeriesService) {
         this.userReportService = userReportService;
-        this.userRepository = userRepository;
-        this.orderRepository = orderRepository;
+        this.timeSeriesService = timeSeriesService;
     }
 
-    @PreAuthorize("hasRole('USER')")
     @GetMapping("/user")
-    public UserReport getUserReport() {
-        Authentication auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-        User currentUser = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return userReportService.getUserReport(currentUser.getId());
+    public UserReport getUserReport(@AuthenticationPrincipal AuthenticatedUser user) {
+        return userReportService.getUserReport(user.userId());
     }
 
-    @PreAuthorize("hasRole('USER')")
     @GetMapping("/user/weekly")
-    public List<Map<String, Object>> getWeeklyCarbon() {
-        Authentication auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        LocalDate today = LocalDate.now();
-        LocalDate start = today.minusDays(6);
-
-        List<Object[]> savedRows = orderRepository.getDailyCarbonSaved(
-                user.getId(), Date.valueOf(start), Date.valueOf(today));
-        List<Object[]> usedRows = orderRepository.getDailyCarbonUsed(
-                user.getId(), Date.valueOf(start), Date.valueOf(today));
-
-        Map<LocalDate, Double> savedMap = new HashMap<>();
-        Map<LocalDate, Double> usedMap = new HashMap<>();
-
-        for (Object[] row : savedRows) {
-            LocalDate d = ((Date) row[0]).toLocalDate();
-            Double val = row[1] == null ? 0.0 : ((Number) row[1]).doubleValue();
-            savedMap.put(d, val);
-        }
-        for (Object[] row : usedRows) {
-            LocalDate d = ((Date) row[0]).toLocalDate();
-            Double val = row[1] == null ? 0.0 : ((Number) row[1]).doubleValue();
-            usedMap.put(d, val);
-        }
+    public List<Map<String, Object>> getWeeklyCarbon(@AuthenticationPrincipal AuthenticatedUser user) {
+        return userReportService.getWeeklyCarbon(user.userId());
+    }
 
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (int i = 6; i >= 0; i--) {
-            LocalDate d = today.minusDays(i);
-            Map<String, Object> day = new HashMap<>();
-            day.put("day", d.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.ENGLISH));
-            day.put("saved", savedMap.getOrDefault(d, 0.0));
-            day.put("used", usedMap.getOrDefault(d, 0.0));
-            result.add(day);
-        }
-        return result;
+    // bucket=hour|day|week|month, from/to as ISO date or date-time ([from, to)), metrics=orders,revenue,carbonUsed,carbonSaved
+    @GetMapping("/user/series")
+    public TimeSeriesService.Series getSeries(@AuthenticationPrincipal AuthenticatedUser user,
+                                              @RequestParam(defaultValue = "day") String bucket,
+                                              @RequestParam(required = false) String from,
+                                              @RequestParam(required = false) String to,
+                                              @RequestParam(required = false) String metrics) {
+        return timeSeriesService.query(TimeSeriesService.Scope.USER, user.userId(), bucket, from, to, metrics);
     }
-}
\ No newline at end of file
+}
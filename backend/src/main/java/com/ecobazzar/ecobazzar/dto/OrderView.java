@@ -0,0 +1,20 @@
+package com.ecobazzar.ecobazzar.dto;
+
+import java.time.LocalDate;
+
+import com.ecobazzar.ecobazzar.model.Order;
+
+public record OrderView(
+    Long id,
+    Long userId,
+    LocalDate orderDate,
+    double carbonUsed,
+    double carbonSaved,
+    double totalCarbon,
+    double totalPrice
+) {
+    public static OrderView of(Order o) {
+        return new OrderView(o.getId(), o.getUserId(), o.getOrderDate(), o.getCarbonUsed(), o.getCarbonSaved(),
+                o.getTotalCarbon(), o.getTotalPrice());
+    }
+}
@@ -5,5 +5,5 @@ public record PendingSellerDto(
     Long id,
     String name,
     String email,
-    int productCount
+    long productCount
 ) {}
\ No newline at end of file
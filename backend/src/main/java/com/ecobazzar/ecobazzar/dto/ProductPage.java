@@ -0,0 +1,8 @@
+package com.ecobazzar.ecobazzar.dto;
+
+import java.util.List;
+
+public record ProductPage(
+    List<ProductView> items,
+    String nextCursor
+) {}
@@ -0,0 +1,20 @@
+package com.ecobazzar.ecobazzar.dto;
+
+import com.ecobazzar.ecobazzar.model.Product;
+
+public record ProductView(
+    Long id,
+    String name,
+    String details,
+    Double price,
+    Double carbonImpact,
+    String imageUrl,
+    boolean ecoCertified,
+    boolean ecoRequested,
+    Long sellerId
+) {
+    public static ProductView of(Product p) {
+        return new ProductView(p.getId(), p.getName(), p.getDetails(), p.getPrice(), p.getCarbonImpact(),
+                p.getImageUrl(), p.isEcoCertified(), p.isEcoRequested(), p.getSellerId());
+    }
+}
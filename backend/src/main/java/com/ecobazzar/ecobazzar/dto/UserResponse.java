@@ -14,6 +14,8 @@ public class UserResponse {
 	
 	private String token;
 	
+	private String refreshToken;
+	
 	public UserResponse(Long id, String name, String email, String role, Integer ecoScore, String token) {
 		this.id = id;
 		this.name = name;
@@ -31,6 +33,14 @@ public class UserResponse {
 		this.token = token;
 	}
 
+	public String getRefreshToken() {
+		return refreshToken;
+	}
+
+	public void setRefreshToken(String refreshToken) {
+		this.refreshToken = refreshToken;
+	}
+
 	public Long getId() {
 		return id;
 	}
@@ -0,0 +1,17 @@
+package com.ecobazzar.ecobazzar.dto;
+
+import com.ecobazzar.ecobazzar.model.User;
+
+public record UserView(
+    Long id,
+    String name,
+    String email,
+    String role,
+    Integer ecoScore,
+    boolean sellerRequestPending
+) {
+    public static UserView of(User u) {
+        return new UserView(u.getId(), u.getName(), u.getEmail(), u.getRole(), u.getEcoScore(),
+                u.isSellerRequestPending());
+    }
+}
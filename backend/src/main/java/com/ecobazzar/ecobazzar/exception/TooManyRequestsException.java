@@ -0,0 +1,15 @@
+package com.ecobazzar.ecobazzar.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Load shedding: the request was refused before doing any work and may be retried later. */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -1,15 +1,18 @@
 package com.ecobazzar.ecobazzar.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 @Entity
-@Table(name = "cart_item")
+@Table(name = "cart_item",
+		uniqueConstraints = @UniqueConstraint(name = "uk_cart_item_user_product", columnNames = {"user_id", "product_id"}))
 @EqualsAndHashCode
 @ToString
 public class CartItem {
@@ -18,8 +21,10 @@ public class CartItem {
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Long id;
 	
+	@Column(name = "user_id")
 	private Long userId;
 	
+	@Column(name = "product_id")
 	private Long productId;
 	
 	private int quantity;
@@ -1,15 +1,23 @@
 package com.ecobazzar.ecobazzar.model;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // date-range reads: rollup backfill and the CSV export filters
+        @Index(name = "idx_orders_order_date", columnList = "order_date"),
+        // hourly series: platform-wide and per user
+        @Index(name = "idx_orders_created_at", columnList = "created_at"),
+        @Index(name = "idx_orders_user_created_at", columnList = "user_id, created_at")
+})
 public class Order {
 
     @Id
@@ -22,6 +30,10 @@ public class Order {
     @Column(name = "order_date")
     private LocalDate orderDate;
 
+    // null for orders placed before the column existed
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
     @Column(name = "carbon_used")
     private double carbonUsed;
 
@@ -56,6 +68,9 @@ public class Order {
     public LocalDate getOrderDate() { return orderDate; }
     public void setOrderDate(LocalDate orderDate) { this.orderDate = orderDate; }
 
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
     public double getCarbonUsed() { return carbonUsed; }
     public void setCarbonUsed(double carbonUsed) { this.carbonUsed = carbonUsed; }
 
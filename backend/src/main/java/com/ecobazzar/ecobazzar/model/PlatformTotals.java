@@ -0,0 +1,57 @@
+package com.ecobazzar.ecobazzar.model;
+
+import jakarta.persistence.*;
+
+// one slot of the platform-wide totals; the report adds up all slots, writers pick one at random
+@Entity
+@Table(name = "platform_totals")
+public class PlatformTotals {
+
+    @Id
+    private Integer slot;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "revenue", nullable = false)
+    private double revenue;
+
+    @Column(name = "carbon_used", nullable = false)
+    private double carbonUsed;
+
+    @Column(name = "carbon_saved", nullable = false)
+    private double carbonSaved;
+
+    @Column(name = "user_count", nullable = false)
+    private long userCount;
+
+    @Column(name = "product_count", nullable = false)
+    private long productCount;
+
+    public PlatformTotals() {}
+
+    public PlatformTotals(Integer slot) {
+        this.slot = slot;
+    }
+
+    public Integer getSlot() { return slot; }
+    public void setSlot(Integer slot) { this.slot = slot; }
+
+    public long getOrderCount() { return orderCount; }
+    public void setOrderCount(long orderCount) { this.orderCount = orderCount; }
+
+    public double getRevenue() { return revenue; }
+    public void setRevenue(double revenue) { this.revenue = revenue; }
+
+    public double getCarbonUsed() { return carbonUsed; }
+    public void setCarbonUsed(double carbonUsed) { this.carbonUsed = carbonUsed; }
+
+    public double getCarbonSaved() { return carbonSaved; }
+    public void setCarbonSaved(double carbonSaved) { this.carbonSaved = carbonSaved; }
+
+    public long getUserCount() { return userCount; }
+    public void setUserCount(long userCount) { this.userCount = userCount; }
+
+    public long getProductCount() { return productCount; }
+    public void setProductCount(long productCount) { this.productCount = productCount; }
+}
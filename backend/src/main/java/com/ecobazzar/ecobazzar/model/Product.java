@@ -3,7 +3,11 @@ package com.ecobazzar.ecobazzar.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // keyset pagination seeks on (sort column, id)
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_carbon_impact_id", columnList = "carbon_impact, id")
+})
 public class Product {
 
     @Id
@@ -0,0 +1,46 @@
+package com.ecobazzar.ecobazzar.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+// one login session: every refresh moves it to the next generation, and only the token of the current one is accepted
+@Entity
+@Table(name = "refresh_token_families", indexes = {
+        @Index(name = "idx_refresh_token_families_expires_at", columnList = "expires_at")
+})
+public class RefreshTokenFamily {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private int generation;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public RefreshTokenFamily() {}
+
+    public RefreshTokenFamily(String id, Long userId, int generation, Instant expiresAt) {
+        this.id = id;
+        this.userId = userId;
+        this.generation = generation;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public int getGeneration() { return generation; }
+    public void setGeneration(int generation) { this.generation = generation; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
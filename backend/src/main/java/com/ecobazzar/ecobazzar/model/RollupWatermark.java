@@ -0,0 +1,33 @@
+package com.ecobazzar.ecobazzar.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+// a single row recording whether the daily rollups hold the order history; see DailyRollups
+@Entity
+@Table(name = "rollup_watermark")
+public class RollupWatermark {
+
+    @Id
+    private Integer id;
+
+    // set once a backfill has covered every order placed before checkout started maintaining the rollups
+    @Column(name = "backfilled_at")
+    private LocalDateTime backfilledAt;
+
+    // the instance running the startup backfill holds it until then; a crashed one loses it when it lapses
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
+    public RollupWatermark() {}
+
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public LocalDateTime getBackfilledAt() { return backfilledAt; }
+    public void setBackfilledAt(LocalDateTime backfilledAt) { this.backfilledAt = backfilledAt; }
+
+    public LocalDateTime getClaimedUntil() { return claimedUntil; }
+    public void setClaimedUntil(LocalDateTime claimedUntil) { this.claimedUntil = claimedUntil; }
+}
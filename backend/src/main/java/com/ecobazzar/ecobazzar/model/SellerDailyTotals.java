@@ -0,0 +1,72 @@
+package com.ecobazzar.ecobazzar.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import jakarta.persistence.*;
+
+// what one seller sold on one day, kept up to date by checkout; see DailyRollups
+@Entity
+@Table(name = "seller_daily_totals")
+@IdClass(SellerDailyTotals.Key.class)
+public class SellerDailyTotals {
+
+    @Id
+    @Column(name = "seller_id")
+    private Long sellerId;
+
+    @Id
+    @Column(name = "order_day")
+    private LocalDate day;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+    @Column(name = "revenue", nullable = false)
+    private double revenue;
+
+    public SellerDailyTotals() {}
+
+    public Long getSellerId() { return sellerId; }
+    public void setSellerId(Long sellerId) { this.sellerId = sellerId; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public long getOrderCount() { return orderCount; }
+    public void setOrderCount(long orderCount) { this.orderCount = orderCount; }
+
+    public long getUnits() { return units; }
+    public void setUnits(long units) { this.units = units; }
+
+    public double getRevenue() { return revenue; }
+    public void setRevenue(double revenue) { this.revenue = revenue; }
+
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long sellerId;
+        private LocalDate day;
+
+        public Key() {}
+
+        public Key(Long sellerId, LocalDate day) {
+            this.sellerId = sellerId;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(sellerId, k.sellerId) && Objects.equals(day, k.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sellerId, day);
+        }
+    }
+}
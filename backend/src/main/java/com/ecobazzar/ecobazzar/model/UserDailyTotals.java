@@ -0,0 +1,78 @@
+package com.ecobazzar.ecobazzar.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import jakarta.persistence.*;
+
+// one user's orders on one day, kept up to date by checkout; see DailyRollups
+@Entity
+@Table(name = "user_daily_totals")
+@IdClass(UserDailyTotals.Key.class)
+public class UserDailyTotals {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "order_day")
+    private LocalDate day;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "spent", nullable = false)
+    private double spent;
+
+    @Column(name = "carbon_used", nullable = false)
+    private double carbonUsed;
+
+    @Column(name = "carbon_saved", nullable = false)
+    private double carbonSaved;
+
+    public UserDailyTotals() {}
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public long getOrderCount() { return orderCount; }
+    public void setOrderCount(long orderCount) { this.orderCount = orderCount; }
+
+    public double getSpent() { return spent; }
+    public void setSpent(double spent) { this.spent = spent; }
+
+    public double getCarbonUsed() { return carbonUsed; }
+    public void setCarbonUsed(double carbonUsed) { this.carbonUsed = carbonUsed; }
+
+    public double getCarbonSaved() { return carbonSaved; }
+    public void setCarbonSaved(double carbonSaved) { this.carbonSaved = carbonSaved; }
+
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long userId;
+        private LocalDate day;
+
+        public Key() {}
+
+        public Key(Long userId, LocalDate day) {
+            this.userId = userId;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(userId, k.userId) && Objects.equals(day, k.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, day);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ecobazzar.ecobazzar.model;
+
+import jakarta.persistence.*;
+
+// lifetime order totals of one user, kept up to date by checkout; see DailyRollups
+@Entity
+@Table(name = "user_order_totals")
+public class UserOrderTotals {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "spent", nullable = false)
+    private double spent;
+
+    @Column(name = "carbon_used", nullable = false)
+    private double carbonUsed;
+
+    @Column(name = "carbon_saved", nullable = false)
+    private double carbonSaved;
+
+    public UserOrderTotals() {}
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public long getOrderCount() { return orderCount; }
+    public void setOrderCount(long orderCount) { this.orderCount = orderCount; }
+
+    public double getSpent() { return spent; }
+    public void setSpent(double spent) { this.spent = spent; }
+
+    public double getCarbonUsed() { return carbonUsed; }
+    public void setCarbonUsed(double carbonUsed) { this.carbonUsed = carbonUsed; }
+
+    public double getCarbonSaved() { return carbonSaved; }
+    public void setCarbonSaved(double carbonSaved) { this.carbonSaved = carbonSaved; }
+}
@@ -1,12 +1,17 @@
 
 package com.ecobazzar.ecobazzar.repository;
 
+import com.ecobazzar.ecobazzar.dto.PendingAdminRequestDto;
 import com.ecobazzar.ecobazzar.model.AdminRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
 public interface AdminRequestRepository extends JpaRepository<AdminRequest, Long> {
- List<AdminRequest> findByApprovedFalseAndRejectedFalseOrderByRequestedAtDesc();
+ @Query("SELECT new com.ecobazzar.ecobazzar.dto.PendingAdminRequestDto(r.id, u.id, u.name, u.email, r.requestedAt) "
+      + "FROM AdminRequest r JOIN r.user u "
+      + "WHERE r.approved = false AND r.rejected = false ORDER BY r.requestedAt DESC")
+ List<PendingAdminRequestDto> findPendingViews();
  boolean existsByUserIdAndApprovedFalseAndRejectedFalse(Long userId);
  
  long countByApprovedFalseAndRejectedFalse();
@@ -1,8 +1,13 @@
 package com.ecobazzar.ecobazzar.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.ecobazzar.ecobazzar.model.CartItem;
 
@@ -10,4 +15,16 @@ public interface CartRepository extends JpaRepository<CartItem, Long> {
 	
 	List<CartItem> findByUserId(Long id);
 
+	Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
+
+	// single statement, so concurrent adds of the same product never lose an increment
+	@Modifying
+	@Query(value = "INSERT INTO cart_item (user_id, product_id, quantity) VALUES (:userId, :productId, :quantity) "
+			+ "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity)", nativeQuery = true)
+	int upsertQuantity(@Param("userId") Long userId, @Param("productId") Long productId, @Param("quantity") int quantity);
+
+	@Modifying
+	@Query("DELETE FROM CartItem c WHERE c.userId = :userId AND c.id IN :ids")
+	int deleteByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
 }
@@ -1,35 +1,16 @@
 package com.ecobazzar.ecobazzar.repository;
 
+import com.ecobazzar.ecobazzar.dto.OrderView;
 import com.ecobazzar.ecobazzar.model.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.util.Date;
 import java.util.List;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    List<Order> findByUserId(Long userId);
-
-    @Query("SELECT SUM(o.totalPrice) FROM Order o WHERE o.userId = :userId")
-    Double getTotalSpendByUser(@Param("userId") Long userId);
-
-    @Query("SELECT SUM(o.carbonUsed) FROM Order o WHERE o.userId = :userId")
-    Double getTotalCarbonUsed(@Param("userId") Long userId);
-
-    @Query("SELECT SUM(o.carbonSaved) FROM Order o WHERE o.userId = :userId")
-    Double getTotalCarbonSaved(@Param("userId") Long userId);
-
-    @Query(value = "SELECT DATE(o.order_date), COALESCE(SUM(o.carbon_saved), 0) " +
-           "FROM orders o WHERE o.user_id = :userId AND o.order_date BETWEEN :start AND :end " +
-           "GROUP BY DATE(o.order_date) ORDER BY DATE(o.order_date)", nativeQuery = true)
-    List<Object[]> getDailyCarbonSaved(@Param("userId") Long userId,
-                                       @Param("start") Date start, @Param("end") Date end);
-
-    @Query(value = "SELECT DATE(o.order_date), COALESCE(SUM(o.carbon_used), 0) " +
-           "FROM orders o WHERE o.user_id = :userId AND o.order_date BETWEEN :start AND :end " +
-           "GROUP BY DATE(o.order_date) ORDER BY DATE(o.order_date)", nativeQuery = true)
-    List<Object[]> getDailyCarbonUsed(@Param("userId") Long userId,
-                                      @Param("start") Date start, @Param("end") Date end);
+    @Query("SELECT new com.ecobazzar.ecobazzar.dto.OrderView(o.id, o.userId, o.orderDate, o.carbonUsed, "
+         + "o.carbonSaved, o.totalCarbon, o.totalPrice) FROM Order o WHERE o.userId = :userId ORDER BY o.id")
+    List<OrderView> findViewsByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.ecobazzar.ecobazzar.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecobazzar.ecobazzar.model.PlatformTotals;
+
+import jakarta.persistence.LockModeType;
+
+public interface PlatformTotalsRepository extends JpaRepository<PlatformTotals, Integer> {
+
+	// increments happen in the database so concurrent writers never lose each other's updates
+	@Transactional
+	@Modifying
+	@Query("UPDATE PlatformTotals t SET t.orderCount = t.orderCount + 1, t.revenue = t.revenue + :revenue, "
+	     + "t.carbonUsed = t.carbonUsed + :carbonUsed, t.carbonSaved = t.carbonSaved + :carbonSaved "
+	     + "WHERE t.slot = :slot")
+	int addOrder(@Param("slot") int slot, @Param("revenue") double revenue,
+	             @Param("carbonUsed") double carbonUsed, @Param("carbonSaved") double carbonSaved);
+
+	@Transactional
+	@Modifying
+	@Query("UPDATE PlatformTotals t SET t.userCount = t.userCount + :delta WHERE t.slot = :slot")
+	int addUsers(@Param("slot") int slot, @Param("delta") long delta);
+
+	@Transactional
+	@Modifying
+	@Query("UPDATE PlatformTotals t SET t.productCount = t.productCount + :delta WHERE t.slot = :slot")
+	int addProducts(@Param("slot") int slot, @Param("delta") long delta);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT t FROM PlatformTotals t ORDER BY t.slot")
+	List<PlatformTotals> lockAll();
+}
@@ -0,0 +1,29 @@
+package com.ecobazzar.ecobazzar.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.ecobazzar.ecobazzar.dto.ProductView;
+
+/**
+ * Catalog reads that select only the {@link ProductView} columns and never load {@code Product} entities.
+ */
+public interface ProductCatalogRepository {
+
+    enum SortKey {
+        PRICE("price"), CARBON_IMPACT("carbonImpact"), ID("id");
+
+        final String path;
+
+        SortKey(String path) { this.path = path; }
+    }
+
+    /** Position of the last row of a page: the sort value (null for a null value) and the id. */
+    record Keyset(Double value, Long id) {}
+
+    /** Rows strictly after {@code after} in (sort, id) order; nulls come first ascending and last descending. */
+    List<ProductView> findPage(SortKey sort, boolean ascending, Keyset after, int limit);
+
+    /** Whole catalog in id order, read from a forward-only cursor. Must be consumed inside a transaction. */
+    Stream<ProductView> streamAll();
+}
@@ -0,0 +1,69 @@
+package com.ecobazzar.ecobazzar.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.ecobazzar.ecobazzar.dto.ProductView;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+class ProductCatalogRepositoryImpl implements ProductCatalogRepository {
+
+    private static final String SELECT_VIEW = "SELECT new com.ecobazzar.ecobazzar.dto.ProductView("
+            + "p.id, p.name, p.details, p.price, p.carbonImpact, p.imageUrl, p.ecoCertified, p.ecoRequested, p.seller.id) "
+            + "FROM Product p ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Integer.MIN_VALUE makes Connector/J stream rows one at a time instead of buffering the result
+    @Value("${catalog.stream.fetch-size:-2147483648}")
+    private int streamFetchSize;
+
+    @Override
+    public List<ProductView> findPage(SortKey sort, boolean ascending, Keyset after, int limit) {
+        String dir = ascending ? " ASC" : " DESC";
+        String cmp = ascending ? " > " : " < ";
+        String col = "p." + sort.path;
+
+        String where = "";
+        if (after != null) {
+            if (sort == SortKey.ID) {
+                where = "WHERE p.id" + cmp + ":id ";
+            } else if (after.value() == null) {
+                // still inside the run of null values, which sorts first ascending and last descending
+                where = ascending
+                        ? "WHERE (" + col + " IS NULL AND p.id > :id) OR " + col + " IS NOT NULL "
+                        : "WHERE " + col + " IS NULL AND p.id < :id ";
+            } else {
+                where = "WHERE (" + col + cmp + ":value OR (" + col + " = :value AND p.id" + cmp + ":id)"
+                        + (ascending ? ") " : " OR " + col + " IS NULL) ");
+            }
+        }
+        String order = sort == SortKey.ID
+                ? "ORDER BY p.id" + dir
+                : "ORDER BY " + col + dir + ", p.id" + dir;
+
+        TypedQuery<ProductView> query = entityManager.createQuery(SELECT_VIEW + where + order, ProductView.class);
+        if (after != null) {
+            query.setParameter("id", after.id());
+            if (sort != SortKey.ID && after.value() != null) {
+                query.setParameter("value", after.value());
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<ProductView> streamAll() {
+        return entityManager.createQuery(SELECT_VIEW + "ORDER BY p.id", ProductView.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
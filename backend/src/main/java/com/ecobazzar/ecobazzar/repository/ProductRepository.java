@@ -1,22 +1,30 @@
 package com.ecobazzar.ecobazzar.repository;
 
+import com.ecobazzar.ecobazzar.dto.PendingProductDto;
+import com.ecobazzar.ecobazzar.dto.ProductView;
 import com.ecobazzar.ecobazzar.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
-import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductCatalogRepository {
 
     List<Product> findByEcoCertifiedTrue();
     List<Product> findByEcoCertifiedTrueOrderByCarbonImpactAsc();
 
-    Optional<Product> findFirstByEcoCertifiedTrueAndNameContainingIgnoreCase(String namePart);
-    
-    Optional<Product> findFirstByEcoCertifiedFalseAndNameContainingIgnoreCase(String keyword);
-
     List<Product> findByEcoRequestedTrue();
     List<Product> findBySeller_Id(Long sellerId);
-    List<Product> findByEcoCertifiedTrueAndNameContainingIgnoreCase(String name);
+
+    @Query("SELECT new com.ecobazzar.ecobazzar.dto.ProductView(p.id, p.name, p.details, p.price, p.carbonImpact, "
+         + "p.imageUrl, p.ecoCertified, p.ecoRequested, p.seller.id) "
+         + "FROM Product p WHERE p.seller.id = :sellerId ORDER BY p.id")
+    List<ProductView> findViewsBySellerId(@Param("sellerId") Long sellerId);
+
+    @Query("SELECT new com.ecobazzar.ecobazzar.dto.PendingProductDto(p.id, p.name, COALESCE(p.price, 0.0), "
+         + "p.carbonImpact, COALESCE(s.name, 'Unknown')) "
+         + "FROM Product p LEFT JOIN p.seller s WHERE p.ecoRequested = true ORDER BY p.id")
+    List<PendingProductDto> findPendingProducts();
 
     List<Product> findByEcoCertifiedFalse();
 }
\ No newline at end of file
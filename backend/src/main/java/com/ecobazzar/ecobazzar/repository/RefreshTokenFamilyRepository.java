@@ -0,0 +1,31 @@
+package com.ecobazzar.ecobazzar.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecobazzar.ecobazzar.model.RefreshTokenFamily;
+
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, String> {
+
+	// compare-and-set on the generation, so of two refreshes with the same token only one wins
+	@Transactional
+	@Modifying
+	@Query("UPDATE RefreshTokenFamily f SET f.generation = f.generation + 1, f.expiresAt = :expiresAt "
+			+ "WHERE f.id = :id AND f.generation = :generation")
+	int advance(@Param("id") String id, @Param("generation") int generation, @Param("expiresAt") Instant expiresAt);
+
+	@Transactional
+	@Modifying
+	@Query("DELETE FROM RefreshTokenFamily f WHERE f.id = :id")
+	int end(@Param("id") String id);
+
+	@Transactional
+	@Modifying
+	@Query("DELETE FROM RefreshTokenFamily f WHERE f.expiresAt < :now")
+	int deleteExpired(@Param("now") Instant now);
+}
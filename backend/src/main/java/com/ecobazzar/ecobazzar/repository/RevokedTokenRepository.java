@@ -0,0 +1,29 @@
+package com.ecobazzar.ecobazzar.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecobazzar.ecobazzar.model.RevokedToken;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+	// a plain insert, so revoking the same id twice fails on the primary key instead of merging
+	@Transactional
+	@Modifying
+	@Query(value = "INSERT INTO revoked_tokens (jti, expires_at, revoked_at) VALUES (:jti, :expiresAt, :revokedAt)",
+	       nativeQuery = true)
+	int insert(@Param("jti") String jti, @Param("expiresAt") Instant expiresAt, @Param("revokedAt") Instant revokedAt);
+
+	List<RevokedToken> findByRevokedAtAfterAndExpiresAtAfter(Instant since, Instant now);
+
+	@Transactional
+	@Modifying
+	@Query("DELETE FROM RevokedToken t WHERE t.expiresAt < :now")
+	int deleteExpired(@Param("now") Instant now);
+}
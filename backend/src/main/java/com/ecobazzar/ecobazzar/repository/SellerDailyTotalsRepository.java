@@ -0,0 +1,16 @@
+package com.ecobazzar.ecobazzar.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.ecobazzar.ecobazzar.model.SellerDailyTotals;
+
+public interface SellerDailyTotalsRepository extends JpaRepository<SellerDailyTotals, SellerDailyTotals.Key> {
+
+    @Query("SELECT t FROM SellerDailyTotals t WHERE t.sellerId = :sellerId AND t.day BETWEEN :from AND :to ORDER BY t.day")
+    List<SellerDailyTotals> findRange(@Param("sellerId") Long sellerId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
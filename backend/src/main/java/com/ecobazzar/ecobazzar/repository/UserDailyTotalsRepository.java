@@ -0,0 +1,16 @@
+package com.ecobazzar.ecobazzar.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.ecobazzar.ecobazzar.model.UserDailyTotals;
+
+public interface UserDailyTotalsRepository extends JpaRepository<UserDailyTotals, UserDailyTotals.Key> {
+
+    @Query("SELECT t FROM UserDailyTotals t WHERE t.userId = :userId AND t.day BETWEEN :from AND :to ORDER BY t.day")
+    List<UserDailyTotals> findRange(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -8,7 +8,12 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.ecobazzar.ecobazzar.dto.PendingSellerDto;
 import com.ecobazzar.ecobazzar.model.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -16,8 +21,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
 	Optional<User> findByEmail(String email);
 	
 	boolean existsByEmail(String email);
+
+	@Query("SELECT u.id FROM User u WHERE u.email = :email")
+	Optional<Long> findIdByEmail(@Param("email") String email);
+
+	// only replaces the hash it was computed from, so a concurrent password change wins
+	@Transactional
+	@Modifying
+	@Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+	int replacePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 	
-	List<User> findBySellerRequestPendingTrue();
+	@Query("SELECT new com.ecobazzar.ecobazzar.dto.PendingSellerDto(u.id, u.name, u.email, COUNT(p.id)) "
+	     + "FROM User u LEFT JOIN Product p ON p.seller = u "
+	     + "WHERE u.sellerRequestPending = true GROUP BY u.id, u.name, u.email ORDER BY u.id")
+	List<PendingSellerDto> findPendingSellers();
 	
 	
 
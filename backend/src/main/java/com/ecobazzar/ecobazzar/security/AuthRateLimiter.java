@@ -0,0 +1,140 @@
+package com.ecobazzar.ecobazzar.security;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ecobazzar.ecobazzar.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Token buckets for the auth endpoints, one set keyed by client IP and one by email, checked before
+ * any database or BCrypt work. Keys are spread over lock stripes of at most {@code max-keys / 16}
+ * buckets each, so memory stays bounded however many distinct keys an attacker sends.
+ *
+ * A bucket is only dropped once it has refilled to capacity, which loses nothing because a new one
+ * starts full. While a stripe is full of buckets used within the last refill period, new keys that
+ * hash to it are refused with 429, so a key flood cannot reset the bucket of an account under attack.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final Buckets byIp;
+    private final Buckets byEmail;
+
+    public AuthRateLimiter(@Value("${auth.rate-limit.ip.capacity:20}") int ipCapacity,
+                           @Value("${auth.rate-limit.ip.refill-per-minute:20}") double ipRefillPerMinute,
+                           @Value("${auth.rate-limit.email.capacity:5}") int emailCapacity,
+                           @Value("${auth.rate-limit.email.refill-per-minute:5}") double emailRefillPerMinute,
+                           @Value("${auth.rate-limit.max-keys:100000}") int maxKeys,
+                           MeterRegistry meterRegistry) {
+        this.byIp = new Buckets("ip", ipCapacity, ipRefillPerMinute, maxKeys, meterRegistry);
+        this.byEmail = new Buckets("email", emailCapacity, emailRefillPerMinute, maxKeys, meterRegistry);
+    }
+
+    /** Takes one token from the caller's IP bucket and, if given, the email's; throws 429 when either is empty. */
+    public void acquire(String clientIp, String email) {
+        if (!byIp.tryAcquire(clientIp != null ? clientIp : "unknown")) {
+            throw new TooManyRequestsException("Too many attempts from this address, please retry later");
+        }
+        if (email != null && !email.isBlank() && !byEmail.tryAcquire(email.trim().toLowerCase(Locale.ROOT))) {
+            throw new TooManyRequestsException("Too many attempts for this account, please retry later");
+        }
+    }
+
+    private static final class Buckets {
+        private final int capacity;
+        private final double tokensPerNano;
+        private final Stripe[] stripes = new Stripe[STRIPES];
+        private final Counter rejected;
+
+        Buckets(String keyType, int capacity, double refillPerMinute, int maxKeys, MeterRegistry meterRegistry) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerMinute / 60_000_000_000.0;
+            int perStripe = Math.max(1, maxKeys / STRIPES);
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe(perStripe);
+            }
+            this.rejected = Counter.builder("auth.ratelimit.rejected").tag("key", keyType).register(meterRegistry);
+            Gauge.builder("auth.ratelimit.keys", this, Buckets::size).tag("key", keyType).register(meterRegistry);
+        }
+
+        boolean tryAcquire(String key) {
+            Stripe stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+            long now = System.nanoTime();
+            boolean allowed;
+            synchronized (stripe) {
+                Bucket b = stripe.get(key);
+                if (b == null) {
+                    if (!stripe.makeRoom(now, capacity, tokensPerNano)) {
+                        rejected.increment();
+                        return false;
+                    }
+                    b = new Bucket(capacity, now);
+                    stripe.put(key, b);
+                } else {
+                    b.tokens = Math.min(capacity, b.tokens + (now - b.refilledAt) * tokensPerNano);
+                    b.refilledAt = now;
+                }
+                allowed = b.tokens >= 1.0;
+                if (allowed) b.tokens -= 1.0;
+            }
+            if (!allowed) rejected.increment();
+            return allowed;
+        }
+
+        double size() {
+            int n = 0;
+            for (Stripe s : stripes) {
+                synchronized (s) {
+                    n += s.size();
+                }
+            }
+            return n;
+        }
+    }
+
+    // access-ordered, so eviction goes least recently used first; only a bucket that has refilled to
+    // capacity may go, since dropping it is then the same as keeping it
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+        private static final long serialVersionUID = 1L;
+        private static final int SCAN_LIMIT = 16;
+
+        private final int maxEntries;
+
+        Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        // drops full buckets, least recently used first, until one more fits; a bucket still short of
+        // capacity is skipped, not evicted. Only the SCAN_LIMIT eldest are looked at, so a flood of new
+        // keys against a stripe of drained buckets costs a bounded walk per request. False if no room
+        boolean makeRoom(long now, int capacity, double tokensPerNano) {
+            Iterator<Bucket> it = values().iterator();
+            for (int seen = 0; size() >= maxEntries && seen < SCAN_LIMIT && it.hasNext(); seen++) {
+                Bucket b = it.next();
+                if (b.tokens + (now - b.refilledAt) * tokensPerNano >= capacity) it.remove();
+            }
+            return size() < maxEntries;
+        }
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long refilledAt;
+
+        Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecobazzar.ecobazzar.security;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Caller identity taken from a verified JWT. Inject it with {@code @AuthenticationPrincipal}
+ * instead of looking the user up by email; {@link #getName()} stays the email so
+ * {@code Authentication.getName()} keeps working. Roles are a {@link Role} bitmask.
+ */
+public record AuthenticatedUser(Long userId, String email, int roleMask) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public boolean hasRole(Role role) {
+        return (roleMask & role.mask()) != 0;
+    }
+
+    public boolean hasAnyRole(int mask) {
+        return (roleMask & mask) != 0;
+    }
+
+    /** Authorities in "ROLE_X" form. */
+    public List<String> roles() {
+        return Role.authorityNames(roleMask);
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecobazzar.ecobazzar.security;
+
+import java.util.List;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Anonymous catalog reads: {@code GET /api/products} and {@code GET /api/products/{segment}}, except
+ * {@code /api/products/seller}, which needs the caller. Deeper paths such as
+ * {@code /api/products/ai/suggestions} never match. The prefix check is plain string work, since it
+ * runs for every request before a security chain is picked; only the last segment of a catalog path
+ * is parsed, and compared decoded and without path parameters, the way MVC will route it, so
+ * {@code /api/products/%73eller} or {@code /api/products/seller;x} does not pass as a product id.
+ */
+public final class CatalogReadMatcher implements RequestMatcher {
+
+    private static final String ROOT = "/api/products";
+
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) return false;
+        String uri = request.getRequestURI();
+        int start = request.getContextPath().length();
+        if (!uri.startsWith(ROOT, start)) return false;
+        int rest = start + ROOT.length();
+        if (uri.length() == rest) return true;
+        if (uri.charAt(rest) != '/') return false;
+        List<PathContainer.Element> tail = PathContainer.parsePath(uri.substring(rest)).elements();
+        if (tail.size() == 1) return true;
+        if (tail.size() != 2 || !(tail.get(1) instanceof PathContainer.PathSegment segment)) return false;
+        String value = segment.valueToMatch();
+        return value.indexOf('/') < 0 && !value.equals("seller");
+    }
+}
@@ -11,23 +11,25 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
     private static final Logger log = LoggerFactory.getLogger(JwtFilter.class);
     private final JwtUtil jwtUtil;
+    private final TokenDenyList denyList;
 
-    public JwtFilter(JwtUtil jwtUtil) { this.jwtUtil = jwtUtil; }
+    public JwtFilter(JwtUtil jwtUtil, TokenDenyList denyList) {
+        this.jwtUtil = jwtUtil;
+        this.denyList = denyList;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -35,15 +37,6 @@ public class JwtFilter extends OncePerRequestFilter {
 
         final String path = request.getRequestURI();
 
-        if (path.startsWith("/api/auth/") || path.startsWith("/v3/api-docs") || path.startsWith("/swagger-ui")) {
-            chain.doFilter(request, response); return;
-        }
-        if ("GET".equalsIgnoreCase(request.getMethod())) {
-            if (path.equals("/api/products") || path.matches("^/api/products/\\d+$")) {
-                chain.doFilter(request, response); return;
-            }
-        }
-
         final String authHeader = request.getHeader("Authorization");
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             chain.doFilter(request, response); return;
@@ -52,22 +45,35 @@ public class JwtFilter extends OncePerRequestFilter {
         final String token = authHeader.substring(7);
 
         try {
-            if (!jwtUtil.validateToken(token)) {
-                log.warn("JWT validation failed for path {}", path);
+            // one verification per request, served from the claims cache for tokens seen before
+            Claims claims = jwtUtil.verify(token);
+            String email = claims.getSubject();
+            if (JwtUtil.isRefreshToken(claims)) {
+                log.warn("Refresh token used as access token for subject={} path={}", email, path);
                 chain.doFilter(request, response); return;
             }
+            UUID jti = JwtUtil.tokenId(claims);
+            if (jti != null && denyList.contains(jti, claims.getExpiration().toInstant())) {
+                log.warn("Revoked JWT for subject={} path={}", email, path);
+                chain.doFilter(request, response); return;
+            }
+            Long userId = claims.get("userId", Long.class);
+            if (userId == null) {
+                log.warn("JWT without userId claim for subject={} path={}", email, path);
+                chain.doFilter(request, response); return;
+            }
+            int roleMask = roleMask(claims);
+            var authorities = Role.grantedAuthorities(roleMask);
+            var principal = new AuthenticatedUser(userId, email, roleMask);
 
-            Claims claims = jwtUtil.getClaims(token);
-            String email = claims.getSubject();
-            Collection<SimpleGrantedAuthority> authorities = extractAuthorities(claims);
-
-            var authentication = new UsernamePasswordAuthenticationToken(email, null, authorities);
+            var authentication = new UsernamePasswordAuthenticationToken(principal, null, authorities);
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            log.info("Authenticated {} with authorities {} for {}", email, authorities, path);
+            log.debug("Authenticated {} with authorities {} for {}", email, authorities, path);
         } catch (ExpiredJwtException e) {
-            log.warn("Expired JWT for subject={} path={}", e.getClaims() != null ? e.getClaims().getSubject() : "unknown", path);
+            // routine with short-lived access tokens; the client refreshes and retries
+            log.debug("Expired JWT for subject={} path={}", e.getClaims() != null ? e.getClaims().getSubject() : "unknown", path);
         } catch (JwtException | IllegalArgumentException e) {
             log.warn("Invalid JWT: {} path={}", e.getMessage(), path);
         } catch (Exception e) {
@@ -77,23 +83,22 @@ public class JwtFilter extends OncePerRequestFilter {
         chain.doFilter(request, response);
     }
 
-    private Collection<SimpleGrantedAuthority> extractAuthorities(Claims claims) {
-        List<SimpleGrantedAuthority> result = new ArrayList<>();
-        Object rolesObj = claims.get("roles");
-        if (rolesObj instanceof List<?> list) {
-            for (Object o : list) result.add(new SimpleGrantedAuthority(normalizeRole(String.valueOf(o))));
-        }
-        String singleRole = claims.get("role", String.class);
-        if (singleRole != null && !singleRole.isBlank()) {
-            result.add(new SimpleGrantedAuthority(normalizeRole(singleRole)));
-        }
-        if (result.isEmpty()) result.add(new SimpleGrantedAuthority("ROLE_USER"));
-        return result;
+    // anonymous catalog reads never get here: they take the separate chain in SecurityConfig
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path.startsWith("/api/auth/") || path.startsWith("/v3/api-docs") || path.startsWith("/swagger-ui");
     }
 
-    private String normalizeRole(String role) {
-        if (role == null || role.isBlank()) return "ROLE_USER";
-        role = role.trim().toUpperCase();
-        return role.startsWith("ROLE_") ? role : "ROLE_" + role;
+    // the role mask is computed once at issue time; only tokens from before the "rm" claim need parsing
+    private static int roleMask(Claims claims) {
+        Integer rm = claims.get("rm", Integer.class);
+        if (rm != null) return rm;
+        int mask = 0;
+        if (claims.get("roles") instanceof List<?> list) {
+            for (Object o : list) mask |= Role.maskOf(String.valueOf(o));
+        }
+        mask |= Role.maskOf(claims.get("role", String.class));
+        return mask != 0 ? mask : Role.USER.mask();
     }
 }
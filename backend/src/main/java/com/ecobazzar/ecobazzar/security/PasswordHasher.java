@@ -0,0 +1,132 @@
+package com.ecobazzar.ecobazzar.security;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.ecobazzar.ecobazzar.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs BCrypt on a small dedicated pool so a burst of logins cannot take every request thread.
+ * When the pool and its queue are full, work is refused immediately with a 429.
+ *
+ * The pool only hashes. Results are handed back on the application task executor, with the
+ * caller's MDC, so what callers chain onto them (saving the user, issuing tokens, audit events)
+ * neither takes hashing capacity nor loses the correlation id.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final Executor callbacks;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Value("${auth.bcrypt.strength:10}") int strength,
+                          @Value("${auth.hashing.threads:0}") int threads,
+                          @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+                          @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor callbacks,
+                          MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.strength = strength;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger n = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.callbacks = callbacks;
+
+        this.encodeTimer = Timer.builder("auth.password.hash").tag("op", "encode").register(meterRegistry);
+        this.matchTimer = Timer.builder("auth.password.hash").tag("op", "matches").register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.hash.rejected")
+                .description("Hashing requests refused because the pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(matchTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /** True when the stored hash was made with a different cost than the configured one. */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) return false;
+        Matcher m = BCRYPT_COST.matcher(encodedPassword);
+        return m.find() && Integer.parseInt(m.group(1)) != strength;
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> work) {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        CompletableFuture<T> hashed;
+        try {
+            hashed = CompletableFuture.supplyAsync(() -> withMdc(mdc, () -> timer.record(work)), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many authentication requests, please retry shortly");
+        }
+        // completed from inside the callback task, so the caller's continuations run there with its MDC
+        CompletableFuture<T> result = new CompletableFuture<>();
+        hashed.whenCompleteAsync((value, error) -> withMdc(mdc, () -> {
+            if (error != null) {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                result.complete(value);
+            }
+            return null;
+        }), callbacks);
+        return result;
+    }
+
+    private static <T> T withMdc(Map<String, String> mdc, Supplier<T> work) {
+        if (mdc != null) MDC.setContextMap(mdc);
+        try {
+            return work.get();
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecobazzar.ecobazzar.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Roles as bits. A user's role string is parsed once, when a token is issued, and travels in the
+ * token as a mask ({@code rm} claim); per-request checks are then a single AND against the mask an
+ * endpoint requires. The authority lists for every possible mask are built up front.
+ */
+public enum Role {
+    USER, SELLER, ADMIN;
+
+    /** Required mask for endpoints that any signed-in user may call. */
+    public static final int ANY = (1 << values().length) - 1;
+
+    private static final List<List<SimpleGrantedAuthority>> AUTHORITIES = new ArrayList<>();
+    private static final List<List<String>> NAMES = new ArrayList<>();
+
+    static {
+        for (int mask = 0; mask <= ANY; mask++) {
+            List<String> names = new ArrayList<>();
+            for (Role r : values()) {
+                if ((mask & r.mask()) != 0) names.add(r.authority());
+            }
+            NAMES.add(List.copyOf(names));
+            AUTHORITIES.add(names.stream().map(SimpleGrantedAuthority::new).toList());
+        }
+    }
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /** The Spring Security authority, always "ROLE_" + name. */
+    public String authority() {
+        return "ROLE_" + name();
+    }
+
+    /** Accepts "ROLE_SELLER", "seller" or " Seller "; anything unknown maps to no bits. */
+    public static int maskOf(String role) {
+        if (role == null) return 0;
+        String name = role.trim().toUpperCase(Locale.ROOT);
+        if (name.startsWith("ROLE_")) name = name.substring(5);
+        for (Role r : values()) {
+            if (r.name().equals(name)) return r.mask();
+        }
+        return 0;
+    }
+
+    public static int maskOf(Collection<String> roles) {
+        int mask = 0;
+        for (String role : roles) mask |= maskOf(role);
+        return mask;
+    }
+
+    public static int maskOf(Role... roles) {
+        int mask = 0;
+        for (Role r : roles) mask |= r.mask();
+        return mask;
+    }
+
+    public static List<SimpleGrantedAuthority> grantedAuthorities(int mask) {
+        return AUTHORITIES.get(mask & ANY);
+    }
+
+    static List<String> authorityNames(int mask) {
+        return NAMES.get(mask & ANY);
+    }
+}
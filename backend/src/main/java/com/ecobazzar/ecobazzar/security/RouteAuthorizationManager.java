@@ -0,0 +1,108 @@
+package com.ecobazzar.ecobazzar.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Endpoint access from one ordered route table: the first rule whose method and path match decides,
+ * by ANDing the caller's {@link Role} mask with the mask the rule requires. Patterns are parsed once
+ * here and the two possible decisions are shared constants, so a check allocates nothing beyond the
+ * parsed request path. This replaces the per-method {@code @PreAuthorize} expressions.
+ */
+@Component
+public class RouteAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    static final int PUBLIC = 0;
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final List<Rule> rules = new ArrayList<>();
+
+    public RouteAuthorizationManager() {
+        int user = Role.USER.mask();
+        int seller = Role.SELLER.mask();
+        int admin = Role.ADMIN.mask();
+
+        // auth, docs, health
+        rule(null, PUBLIC, "/api/auth/register", "/api/auth/login", "/api/auth/refresh", "/api/auth/logout");
+        rule(null, PUBLIC, "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html");
+        rule(HttpMethod.GET, PUBLIC, "/actuator/health");
+        rule(null, admin, "/actuator/**");
+
+        // catalog: reads are public except the two personalised ones, writes are for sellers and admins
+        rule(HttpMethod.GET, seller | admin, "/api/products/seller");
+        rule(HttpMethod.GET, user, "/api/products/ai/suggestions");
+        rule(HttpMethod.GET, PUBLIC, "/api/products", "/api/products/**");
+        rule(null, seller | admin, "/api/products", "/api/products/**");
+
+        // administration
+        rule(null, admin, "/api/admin/**");
+        rule(null, admin, "/api/admin-request/pending", "/api/admin-request/approve/**", "/api/admin-request/reject/**");
+        rule(null, Role.ANY, "/api/admin-request/request", "/api/admin-request/has-pending");
+
+        // shopper and seller areas
+        rule(null, user, "/api/cart", "/api/cart/**", "/api/orders", "/api/orders/**");
+        rule(null, user, "/api/reports/user", "/api/reports/user/**");
+        rule(null, seller, "/api/reports/seller", "/api/reports/seller/**");
+        rule(null, user, "/api/seller-request/**");
+
+        rule(null, Role.ANY, "/**");
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return decide(authentication, context);
+    }
+
+    // still abstract in Spring Security 6, but only reached by callers of the deprecated API
+    @Deprecated
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return decide(authentication, context);
+    }
+
+    private AuthorizationDecision decide(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        int required = requiredMask(context.getRequest());
+        if (required == PUBLIC) return GRANTED;
+        Authentication auth = authentication.get();
+        if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser user && user.hasAnyRole(required)) {
+            return GRANTED;
+        }
+        return DENIED;
+    }
+
+    int requiredMask(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        PathContainer container = PathContainer.parsePath(path);
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        for (Rule rule : rules) {
+            if ((rule.method() == null || rule.method().equals(method)) && rule.pattern().matches(container)) {
+                return rule.required();
+            }
+        }
+        return Role.ANY;
+    }
+
+    private void rule(HttpMethod method, int required, String... patterns) {
+        for (String p : patterns) {
+            rules.add(new Rule(method, PathPatternParser.defaultInstance.parse(p), required));
+        }
+    }
+
+    private record Rule(HttpMethod method, PathPattern pattern, int required) {}
+}
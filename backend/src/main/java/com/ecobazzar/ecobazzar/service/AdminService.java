@@ -1,95 +1,143 @@
 package com.ecobazzar.ecobazzar.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
-import com.ecobazzar.ecobazzar.model.Order;
-import com.ecobazzar.ecobazzar.model.Product;
+import com.ecobazzar.ecobazzar.dto.PendingProductDto;
+import com.ecobazzar.ecobazzar.dto.PendingSellerDto;
+import com.ecobazzar.ecobazzar.dto.ProductView;
+import com.ecobazzar.ecobazzar.dto.UserView;
 import com.ecobazzar.ecobazzar.model.User;
-import com.ecobazzar.ecobazzar.repository.OrderRepository;
 import com.ecobazzar.ecobazzar.repository.ProductRepository;
 import com.ecobazzar.ecobazzar.repository.UserRepository;
+import com.ecobazzar.ecobazzar.security.AuditLog;
 
 @Service
 public class AdminService {
 
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
-    private final OrderRepository orderRepository;
-
-    public AdminService(ProductRepository productRepository, UserRepository userRepository, OrderRepository orderRepository) {
-        this.orderRepository = orderRepository;
+    private final ProductService productService;
+    private final UserIdentityCache identities;
+    private final AuditLog audit;
+    private final PlatformTotalsService platformTotals;
+    private final OrderCsvExporter orderCsvExporter;
+    private final DailyRollups dailyRollups;
+
+    public AdminService(ProductRepository productRepository, UserRepository userRepository,
+                        ProductService productService, UserIdentityCache identities, AuditLog audit,
+                        PlatformTotalsService platformTotals, OrderCsvExporter orderCsvExporter,
+                        DailyRollups dailyRollups) {
         this.productRepository = productRepository;
         this.userRepository = userRepository;
+        this.productService = productService;
+        this.identities = identities;
+        this.audit = audit;
+        this.platformTotals = platformTotals;
+        this.orderCsvExporter = orderCsvExporter;
+        this.dailyRollups = dailyRollups;
     }
 
-    public Product approveProduct(Long id) {
+    public ProductView approveProduct(Long id) {
         return productRepository.findById(id)
             .map(p -> {
                 p.setEcoCertified(true);   // <= ADMIN APPROVES
                 p.setEcoRequested(false);  // <= clear request
-                return productRepository.save(p);
+                return ProductView.of(productService.saveProduct(p));
             })
             .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
     }
 
-    public User approveSeller(Long id) {
+    public UserView approveSeller(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        String previousRole = user.getRole();
         user.setRole("ROLE_SELLER");
         user.setSellerRequestPending(false); 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        identities.evict(id);
+        audit.roleChanged(id, previousRole, "ROLE_SELLER");
+        return UserView.of(saved);
     }
 
-    public List<User> getAllUsers(){
-        return userRepository.findAll();
+    public UserView rejectSeller(Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        user.setSellerRequestPending(false);
+        User saved = userRepository.save(user);
+        identities.evict(id);
+        audit.decided("seller", id, false);
+        return UserView.of(saved);
     }
 
-    public Map<String, Object> getAdminReport(){
-        List<Order> orders = orderRepository.findAll();
+    public List<UserView> getAllUsers(){
+        return userRepository.findAll().stream().map(UserView::of).toList();
+    }
+
+    public List<PendingProductDto> getPendingProducts() {
+        return productRepository.findPendingProducts();
+    }
 
-        double totalCarbonUsed = orders.stream().mapToDouble(Order::getCarbonUsed).sum();
-        double totalCarbonSaved = orders.stream().mapToDouble(Order::getCarbonSaved).sum();
-        double totalRevenue = orders.stream().mapToDouble(Order::getTotalPrice).sum();
+    public List<PendingSellerDto> getPendingSellers() {
+        return userRepository.findPendingSellers();
+    }
+
+    public Map<String, Object> getAdminReport(){
+        PlatformTotalsService.Totals totals = platformTotals.current();
 
         Map<String, Object> report = new HashMap<>();
-        report.put("totalOrders", orders.size());
-        report.put("totalRevenue", totalRevenue);
-        report.put("totalCarbonUsed", totalCarbonUsed);
-        report.put("totalCarbonSaved", totalCarbonSaved);
-        report.put("netCarbon", totalCarbonUsed - totalCarbonSaved);
-        report.put("totalUsers", userRepository.count());
-        report.put("totalProducts", productRepository.count());
+        report.put("totalOrders", totals.orders());
+        report.put("totalRevenue", totals.revenue());
+        report.put("totalCarbonUsed", totals.carbonUsed());
+        report.put("totalCarbonSaved", totals.carbonSaved());
+        report.put("netCarbon", totals.carbonUsed() - totals.carbonSaved());
+        report.put("totalUsers", totals.users());
+        report.put("totalProducts", totals.products());
 
         return report;
     }
 
-    public String generateReportCSV() {
-        List<Order> orders = orderRepository.findAll();
+    public PlatformTotalsService.Reconciliation reconcileReport() {
+        return platformTotals.reconcile();
+    }
+
+    public DailyRollups.Backfill rebuildDailyRollups(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+        return dailyRollups.backfill(from, to);
+    }
 
-        StringBuilder csv = new StringBuilder("OrderId,UserId,TotalPrice,CarbonUsed,CarbonSaved,OrderDate\n");
+    public void writeReportCsv(OutputStream out, OrderCsvExporter.Range range, boolean gzip) throws IOException {
+        orderCsvExporter.write(out, range, gzip);
+    }
 
-        for (Order o : orders) {
-            csv.append(o.getId()).append(",")
-               .append(o.getUserId()).append(",")
-               .append(o.getTotalPrice()).append(",")
-               .append(o.getCarbonUsed()).append(",")
-               .append(o.getCarbonSaved()).append(",")
-               .append(o.getOrderDate()).append("\n");
+    public OrderCsvExporter.Range exportRange(LocalDate from, LocalDate to, Long afterId, Integer limit) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+        if (limit != null && limit <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
         }
-        return csv.toString();
+        return new OrderCsvExporter.Range(from, to, afterId, limit);
     }
     
-    public Product rejectProduct(Long id) {
+    public ProductView rejectProduct(Long id) {
         return productRepository.findById(id)
             .map(p -> {
                 p.setEcoRequested(false);
                 p.setEcoCertified(false);
-                return productRepository.save(p);
+                return ProductView.of(productService.saveProduct(p));
             })
             .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
     }
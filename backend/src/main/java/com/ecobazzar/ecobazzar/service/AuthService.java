@@ -3,93 +3,203 @@ package com.ecobazzar.ecobazzar.service;
 import com.ecobazzar.ecobazzar.dto.LoginRequest;
 import com.ecobazzar.ecobazzar.dto.RegisterRequest;
 import com.ecobazzar.ecobazzar.dto.UserResponse;
+import com.ecobazzar.ecobazzar.exception.TooManyRequestsException;
 import com.ecobazzar.ecobazzar.model.User;
 import com.ecobazzar.ecobazzar.repository.UserRepository;
+import com.ecobazzar.ecobazzar.security.AuditLog;
+import com.ecobazzar.ecobazzar.security.PasswordHasher;
 import com.ecobazzar.ecobazzar.util.JwtUtil;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtUtil jwtUtil;
+    private final EmailMembershipFilter emailFilter;
+    private final UserIdentityCache identities;
+    private final TokenRevocationService revocations;
+    private final AuditLog audit;
+    private final PlatformTotalsService platformTotals;
 
     public AuthService(UserRepository userRepository,
-                       PasswordEncoder passwordEncoder,
-                       JwtUtil jwtUtil) {
+                       PasswordHasher passwordHasher,
+                       JwtUtil jwtUtil,
+                       EmailMembershipFilter emailFilter,
+                       UserIdentityCache identities,
+                       TokenRevocationService revocations,
+                       AuditLog audit,
+                       PlatformTotalsService platformTotals) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtUtil = jwtUtil;
+        this.emailFilter = emailFilter;
+        this.identities = identities;
+        this.revocations = revocations;
+        this.audit = audit;
+        this.platformTotals = platformTotals;
     }
 
     // ==================== REGISTER ====================
-    public UserResponse register(RegisterRequest request) {
-        System.out.println("REGISTER ATTEMPT → Email: " + request.getEmail());
-
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email already exists!");
+    // BCrypt runs on the hashing pool and the rest on the task executor; the request thread is released meanwhile
+    public CompletableFuture<UserResponse> register(RegisterRequest request) {
+        // only a "maybe" from the filter costs a lookup; the unique index catches anything that slips past
+        if (emailFilter.mightContain(request.getEmail())) {
+            if (userRepository.existsByEmail(request.getEmail())) {
+                throw new RuntimeException("Email already exists!");
+            }
+            emailFilter.recordFalsePositive();
         }
 
         String role = "ROLE_USER";
 
-        User user = new User();
-        user.setName(request.getName());
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword())); // BCrypt
-        user.setRole(role);
-        user.setEcoScore(0);
-
-        User saved = userRepository.save(user);
-
-        System.out.println("REGISTER SUCCESS → User saved with ID: " + saved.getId() +
-                " | Role: " + saved.getRole() +
-                " | Password hash: " + saved.getPassword());
-
-        return new UserResponse(saved.getId(), saved.getName(), saved.getEmail(), saved.getRole(), 0, null);
+        return passwordHasher.encode(request.getPassword()).thenApply(hash -> {
+            User user = new User();
+            user.setName(request.getName());
+            user.setEmail(request.getEmail());
+            user.setPassword(hash); // BCrypt
+            user.setRole(role);
+            user.setEcoScore(0);
+
+            User saved;
+            try {
+                saved = userRepository.save(user);
+            } catch (DataIntegrityViolationException e) {
+                throw new RuntimeException("Email already exists!");
+            }
+            emailFilter.add(saved.getEmail());
+            platformTotals.userAdded();
+            audit.registered(saved.getId());
+
+            return new UserResponse(saved.getId(), saved.getName(), saved.getEmail(), saved.getRole(), 0, null);
+        });
     }
 
-    public UserResponse login(LoginRequest login) {
+    public CompletableFuture<UserResponse> login(LoginRequest login) {
         String email = login.getEmail();
         String rawPassword = login.getPassword();
 
-        System.out.println("==================================================");
-        System.out.println("LOGIN ATTEMPT → Email: " + email);
-        System.out.println("Raw password received: " + rawPassword);
-
-        User user = userRepository.findByEmail(email)
+        UserIdentityCache.UserIdentity user = identities.byEmail(email)
                 .orElseThrow(() -> {
-                    System.out.println("LOGIN FAILED → User not found in database!");
+                    audit.loginFailed(email, "unknown_user");
                     return new RuntimeException("User not found!");
                 });
 
-        System.out.println("User found → ID: " + user.getId() +
-                " | Name: " + user.getName() +
-                " | Role: " + user.getRole());
+        String storedHash = user.passwordHash();
+
+        return passwordHasher.matches(rawPassword, storedHash).thenApply(passwordMatches -> {
+            if (!passwordMatches) {
+                audit.loginFailed(email, "bad_password");
+                throw new RuntimeException("Invalid credentials!");
+            }
+
+            if (passwordHasher.needsRehash(storedHash)) {
+                upgradeHash(user.id(), storedHash, rawPassword);
+            }
 
-        String storedHash = user.getPassword();
-        System.out.println("Stored password hash: " + storedHash);
+            audit.loginSucceeded(user.id());
+            return issueTokens(user);
+        });
+    }
 
-        boolean passwordMatches = passwordEncoder.matches(rawPassword, storedHash);
-        System.out.println("BCrypt password match result: " + passwordMatches);
+    // ==================== REFRESH / LOGOUT ====================
+    // refresh tokens are single use: each refresh moves the session's family on and hands out a new pair
+    public UserResponse refresh(String refreshToken) {
+        Claims claims = verifyQuietly(refreshToken);
+        if (claims == null || !JwtUtil.isRefreshToken(claims)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+        }
+        Long userId = claims.get("userId", Long.class);
+        UUID familyId = JwtUtil.familyId(claims);
+        Integer generation = JwtUtil.generation(claims);
+        Optional<TokenRevocationService.RefreshFamily> next;
+        if (familyId != null && generation != null) {
+            next = revocations.rotate(new TokenRevocationService.RefreshFamily(familyId, generation));
+        } else {
+            // issued before families existed: single use through the deny list, then a family of its own
+            next = revocations.revoke(claims) ? Optional.of(revocations.startFamily(userId)) : Optional.empty();
+        }
+        if (next.isEmpty()) {
+            audit.tokenReplayed(userId);
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token already used");
+        }
+        // the role comes from the current user row, so a role change takes effect on the next refresh
+        UserIdentityCache.UserIdentity user = identities.byId(userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token"));
+        return issueTokens(user, next.get());
+    }
 
-        if (!passwordMatches) {
-            System.out.println("LOGIN FAILED → Invalid credentials for " + email);
-            throw new RuntimeException("Invalid credentials!");
+    public void logout(String accessToken, String refreshToken) {
+        Long userId = null;
+        Claims access = verifyQuietly(accessToken);
+        if (access != null && revocations.revoke(access)) {
+            userId = access.get("userId", Long.class);
+        }
+        Claims refresh = verifyQuietly(refreshToken);
+        if (refresh != null && JwtUtil.isRefreshToken(refresh)) {
+            UUID familyId = JwtUtil.familyId(refresh);
+            if (familyId != null ? revocations.endFamily(familyId) : revocations.revoke(refresh)) {
+                userId = refresh.get("userId", Long.class);
+            }
         }
+        if (userId != null) audit.loggedOut(userId);
+    }
+
+    private UserResponse issueTokens(UserIdentityCache.UserIdentity user) {
+        return issueTokens(user, revocations.startFamily(user.id()));
+    }
 
-        String token = jwtUtil.generateToken(user.getEmail(), user.getRole(), user.getId());
-        System.out.println("LOGIN SUCCESS → JWT generated: " + token.substring(0, 20) + "...");
-        System.out.println("==================================================");
-
-        return new UserResponse(
-                user.getId(),
-                user.getName(),
-                user.getEmail(),
-                user.getRole(),
-                user.getEcoScore(),
-                token
+    private UserResponse issueTokens(UserIdentityCache.UserIdentity user, TokenRevocationService.RefreshFamily family) {
+        UserResponse response = new UserResponse(
+                user.id(),
+                user.name(),
+                user.email(),
+                user.role(),
+                user.ecoScore(),
+                jwtUtil.generateToken(user.email(), user.role(), user.id())
         );
+        response.setRefreshToken(jwtUtil.generateRefreshToken(user.email(), user.id(), family.id(), family.generation()));
+        return response;
+    }
+
+    private Claims verifyQuietly(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            return jwtUtil.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // best effort and off the login path: if it fails or the pool is busy, the next login retries
+    private void upgradeHash(Long userId, String oldHash, String rawPassword) {
+        try {
+            passwordHasher.encode(rawPassword)
+                    .thenAccept(newHash -> {
+                        if (userRepository.replacePasswordHash(userId, oldHash, newHash) > 0) {
+                            identities.evict(userId);
+                        }
+                    })
+                    .exceptionally(e -> {
+                        log.warn("Password rehash failed for user {}: {}", userId, e.getMessage());
+                        return null;
+                    });
+        } catch (TooManyRequestsException e) {
+            // skipped, not an error
+        }
     }
-}
\ No newline at end of file
+}
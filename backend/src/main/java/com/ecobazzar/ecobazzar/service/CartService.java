@@ -1,9 +1,9 @@
 package com.ecobazzar.ecobazzar.service;
 
 import com.ecobazzar.ecobazzar.dto.CartSummaryDto;
+import com.ecobazzar.ecobazzar.dto.ProductView;
 import com.ecobazzar.ecobazzar.model.CartItem;
 import com.ecobazzar.ecobazzar.model.Product;
-import com.ecobazzar.ecobazzar.repository.CartRepository;
 import com.ecobazzar.ecobazzar.repository.ProductRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
@@ -14,35 +14,50 @@ import java.util.Optional;
 @Service
 public class CartService {
 
-    private final CartRepository cartRepository;
+    private final CartStore cartStore;
     private final ProductRepository productRepository;
-
-    public CartService(CartRepository cartRepository, ProductRepository productRepository) {
-        this.cartRepository = cartRepository;
+    private final ProductHydrator productHydrator;
+    private final CartTotalsTracker cartTotals;
+    private final ProductSearchIndex productSearchIndex;
+
+    public CartService(CartStore cartStore, ProductRepository productRepository,
+                       ProductHydrator productHydrator, CartTotalsTracker cartTotals,
+                       ProductSearchIndex productSearchIndex) {
+        this.cartStore = cartStore;
         this.productRepository = productRepository;
+        this.productHydrator = productHydrator;
+        this.cartTotals = cartTotals;
+        this.productSearchIndex = productSearchIndex;
     }
 
     public CartItem addToCart(CartItem cartItem) {
-        return cartRepository.save(cartItem);
+        if (cartItem.getProductId() == null) {
+            throw new RuntimeException("Product is required");
+        }
+        if (cartItem.getQuantity() <= 0) {
+            throw new RuntimeException("Quantity must be greater than zero");
+        }
+        Product product = productRepository.findById(cartItem.getProductId())
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        CartItem line = cartStore.addQuantity(cartItem.getUserId(), product.getId(), cartItem.getQuantity());
+        cartTotals.lineChanged(cartItem.getUserId(), product, cartItem.getQuantity());
+        return line;
     }
 
     public CartSummaryDto getCartSummary(Long userId) {
-        List<CartItem> items = cartRepository.findByUserId(userId);
-
-        double totalPrice = 0.0;
-        double totalCarbonUsed = 0.0;
+        List<CartItem> items = cartStore.findByUserId(userId);
+
+        // running totals are checked against the lines just read, so a missed update only costs a recompute
+        CartTotalsTracker.Snapshot totals = cartTotals.get(userId);
+        if (totals == null || !totals.matches(items)) {
+            CartTotalsTracker.Stamp stamp = cartTotals.stamp(userId);
+            totals = CartTotalsTracker.Snapshot.of(items, productHydrator.forCart(items));
+            cartTotals.store(userId, stamp, totals);
+        }
 
-        CartSummaryDto.EcoSwapSuggestion swapSuggestion = generateSwapSuggestion(items);
+        CartSummaryDto.EcoSwapSuggestion swapSuggestion = generateSwapSuggestion(items, totals);
         String ecoMessage = null;
 
-        for (CartItem item : items) {
-            Product p = productRepository.findById(item.getProductId()).orElse(null);
-            if (p != null) {
-                totalPrice += p.getPrice() * item.getQuantity();
-                totalCarbonUsed += (p.getCarbonImpact() != null ? p.getCarbonImpact() : 0.0) * item.getQuantity();
-            }
-        }
-
         if (swapSuggestion != null) {
             double totalSavings = swapSuggestion.getCarbonSavingsPerUnit() * swapSuggestion.getQuantity();
             ecoMessage = "Switch to " + swapSuggestion.getSuggestedProductName() +
@@ -51,8 +66,8 @@ public class CartService {
 
         return new CartSummaryDto(
                 items,
-                totalPrice,
-                totalCarbonUsed,
+                totals.totalPrice(),
+                totals.totalCarbonUsed(),
                 0.0,
                 ecoMessage,
                 swapSuggestion
@@ -60,17 +75,18 @@ public class CartService {
     }
 
     public void removeFromCart(Long cartItemId, Long userId) {
-        CartItem item = cartRepository.findById(cartItemId)
+        CartItem item = cartStore.findById(userId, cartItemId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
         if (!item.getUserId().equals(userId)) {
             throw new RuntimeException("Unauthorized");
         }
-        cartRepository.deleteById(cartItemId);
+        cartStore.delete(userId, cartItemId);
+        cartTotals.lineRemoved(userId, item.getProductId());
     }
 
     @Transactional
     public void swapToEco(Long userId, Long cartItemId, Long newProductId) {
-        CartItem item = cartRepository.findById(cartItemId)
+        CartItem item = cartStore.findById(userId, cartItemId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
 
         if (!item.getUserId().equals(userId)) {
@@ -84,40 +100,48 @@ public class CartService {
             throw new RuntimeException("Can only swap to eco-certified product");
         }
 
-        item.setProductId(newProductId);
-        cartRepository.save(item);
+        if (newProductId.equals(item.getProductId())) return;
+
+        // merges into an existing line for the eco product instead of breaking the (user, product) key
+        cartStore.delete(userId, cartItemId);
+        cartStore.addQuantity(userId, newProductId, item.getQuantity());
+        cartTotals.lineRemoved(userId, item.getProductId());
+        cartTotals.lineChanged(userId, newProduct, item.getQuantity());
     }
 
-    private CartSummaryDto.EcoSwapSuggestion generateSwapSuggestion(List<CartItem> items) {
+    private CartSummaryDto.EcoSwapSuggestion generateSwapSuggestion(List<CartItem> items,
+                                                                    CartTotalsTracker.Snapshot totals) {
         Optional<CartItem> nonEcoItem = items.stream()
                 .filter(i -> {
-                    Product p = productRepository.findById(i.getProductId()).orElse(null);
-                    return p != null && !p.getEcoCertified();
+                    CartTotalsTracker.Line line = totals.lines().get(i.getProductId());
+                    return line != null && line.exists() && !line.ecoCertified();
                 })
                 .findFirst();
 
         if (nonEcoItem.isEmpty()) return null;
 
         CartItem item = nonEcoItem.get();
-        Product current = productRepository.findById(item.getProductId()).orElse(null);
-        if (current == null || current.getCarbonImpact() == null) return null;
+        CartTotalsTracker.Line current = totals.lines().get(item.getProductId());
+        if (current.carbonImpact() == null) return null;
 
-        String keyword = extractKeyword(current.getName());
-        Optional<Product> ecoAlt = productRepository
-                .findFirstByEcoCertifiedTrueAndNameContainingIgnoreCase(keyword);
+        String keyword = extractKeyword(current.name());
+        Optional<ProductView> ecoAlt = productSearchIndex
+                .search(keyword, ProductSearchIndex.Filter.ECO_ONLY, 1)
+                .stream()
+                .findFirst();
 
         if (ecoAlt.isEmpty()) return null;
 
-        Product eco = ecoAlt.get();
-        if (eco.getCarbonImpact() == null) return null;
+        ProductView eco = ecoAlt.get();
+        if (eco.carbonImpact() == null) return null;
 
-        double savingsPerUnit = current.getCarbonImpact() - eco.getCarbonImpact();
+        double savingsPerUnit = current.carbonImpact() - eco.carbonImpact();
         if (savingsPerUnit <= 0) return null;
 
         var suggestion = new CartSummaryDto.EcoSwapSuggestion();
         suggestion.setCartItemIdToReplace(item.getId());
-        suggestion.setSuggestedProductId(eco.getId());
-        suggestion.setSuggestedProductName(eco.getName());
+        suggestion.setSuggestedProductId(eco.id());
+        suggestion.setSuggestedProductName(eco.name());
         suggestion.setCarbonSavingsPerUnit(savingsPerUnit);
         suggestion.setQuantity(item.getQuantity());
 
@@ -0,0 +1,36 @@
+package com.ecobazzar.ecobazzar.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import com.ecobazzar.ecobazzar.model.CartItem;
+
+/**
+ * Where cart lines live between requests. The default implementation goes straight to
+ * {@code cart_item}; with {@code cart.store.mode=write-behind} carts are kept in memory and
+ * flushed asynchronously.
+ */
+public interface CartStore {
+
+    List<CartItem> findByUserId(Long userId);
+
+    Optional<CartItem> findById(Long userId, Long cartItemId);
+
+    /** Adds to the user's line for the product, creating it if needed, as one atomic step. */
+    CartItem addQuantity(Long userId, Long productId, int quantity);
+
+    void delete(Long userId, Long cartItemId);
+
+    /**
+     * Makes every pending change of the user's cart visible in {@code cart_item}. May write in a
+     * transaction of its own, so call it before opening one rather than while holding a connection.
+     */
+    void flush(Long userId);
+
+    /**
+     * Called by checkout inside its transaction with the lines it is ordering, before it deletes them
+     * from {@code cart_item}; they must not be written back afterwards unless the checkout rolls back.
+     */
+    void checkedOut(Long userId, Collection<Long> cartItemIds);
+}
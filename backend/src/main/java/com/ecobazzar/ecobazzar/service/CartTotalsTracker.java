@@ -0,0 +1,201 @@
+package com.ecobazzar.ecobazzar.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ecobazzar.ecobazzar.model.CartItem;
+import com.ecobazzar.ecobazzar.model.Product;
+
+/**
+ * Running per-user cart aggregates (price, carbon used, item count) plus the product facts the
+ * cart summary needs, so a summary does not have to reload and re-add every line.
+ *
+ * Snapshots are immutable and replaced on every change. A snapshot computed from the database is
+ * only stored if no cart or product change was applied while it was being computed. Product changes
+ * are applied when they commit; changes made on another instance are only picked up once the
+ * snapshot expires, {@code cart.totals.ttl-seconds} after it was computed.
+ */
+@Component
+public class CartTotalsTracker {
+
+    private static final int STAMP_STRIPES = 1024;
+
+    private final int maxUsers;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<Long, Held> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLongArray userStamps = new AtomicLongArray(STAMP_STRIPES);
+    private final AtomicLong productStamp = new AtomicLong();
+
+    public CartTotalsTracker(@Value("${cart.totals.max-users:10000}") int maxUsers,
+                             @Value("${cart.totals.ttl-seconds:30}") long ttlSeconds) {
+        this.maxUsers = maxUsers;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    public Snapshot get(Long userId) {
+        Held held = snapshots.get(userId);
+        if (held == null) return null;
+        if (System.nanoTime() - held.expiresAt() >= 0) {
+            snapshots.remove(userId, held);
+            return null;
+        }
+        return held.snapshot();
+    }
+
+    public Stamp stamp(Long userId) {
+        return new Stamp(userStamps.get(stripe(userId)), productStamp.get());
+    }
+
+    public void store(Long userId, Stamp stamp, Snapshot snapshot) {
+        if (!stamp.equals(stamp(userId))) return;
+        if (snapshots.size() >= maxUsers) {
+            trim();
+        }
+        Held held = new Held(snapshot, System.nanoTime() + ttlNanos);
+        snapshots.put(userId, held);
+        // a change may have slipped in between the check and the put
+        if (!stamp.equals(stamp(userId))) {
+            snapshots.remove(userId, held);
+        }
+    }
+
+    /** Applies {@code quantityDelta} units of {@code product} to the user's totals once the change is committed. */
+    public void lineChanged(Long userId, Product product, int quantityDelta) {
+        Transactions.afterCommit(() -> {
+            userStamps.incrementAndGet(stripe(userId));
+            snapshots.computeIfPresent(userId, (id, h) -> h.with(h.snapshot().withQuantityDelta(product, quantityDelta)));
+        });
+    }
+
+    public void lineRemoved(Long userId, Long productId) {
+        Transactions.afterCommit(() -> {
+            userStamps.incrementAndGet(stripe(userId));
+            snapshots.computeIfPresent(userId, (id, h) -> h.with(h.snapshot().without(productId)));
+        });
+    }
+
+    public void invalidate(Long userId) {
+        Transactions.afterCommit(() -> {
+            userStamps.incrementAndGet(stripe(userId));
+            snapshots.remove(userId);
+        });
+    }
+
+    /**
+     * A product's price or carbon impact may have changed: drop every snapshot that uses it once the
+     * change is committed, so a snapshot is never computed from a price that is later rolled back.
+     */
+    public void productChanged(Long productId) {
+        Transactions.afterCommit(() -> {
+            productStamp.incrementAndGet();
+            snapshots.values().removeIf(h -> h.snapshot().lines().containsKey(productId));
+        });
+    }
+
+    private void trim() {
+        Iterator<Long> it = snapshots.keySet().iterator();
+        int toDrop = Math.max(1, maxUsers / 10);
+        while (it.hasNext() && toDrop-- > 0) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (STAMP_STRIPES - 1);
+    }
+
+    public record Stamp(long user, long products) {}
+
+    // cart edits keep the expiry: the other lines still carry the product facts read back then
+    private record Held(Snapshot snapshot, long expiresAt) {
+        Held with(Snapshot changed) {
+            return new Held(changed, expiresAt);
+        }
+    }
+
+    /** What the summary needs to know about one product in the cart. */
+    public record Line(int quantity, boolean exists, double price, Double carbonImpact,
+                       boolean ecoCertified, String name) {
+
+        static Line of(Product p, int quantity) {
+            if (p == null) return new Line(quantity, false, 0.0, null, false, null);
+            return new Line(quantity, true,
+                    p.getPrice() != null ? p.getPrice() : 0.0,
+                    p.getCarbonImpact(),
+                    Boolean.TRUE.equals(p.getEcoCertified()),
+                    p.getName());
+        }
+
+        double lineCarbon() {
+            return (carbonImpact != null ? carbonImpact : 0.0) * quantity;
+        }
+
+        Line withQuantity(int q) {
+            return new Line(q, exists, price, carbonImpact, ecoCertified, name);
+        }
+    }
+
+    public record Snapshot(double totalPrice, double totalCarbonUsed, int itemCount, Map<Long, Line> lines) {
+
+        public static Snapshot of(List<CartItem> items, Map<Long, Product> products) {
+            Map<Long, Line> lines = new HashMap<>();
+            for (CartItem item : items) {
+                lines.merge(item.getProductId(), Line.of(products.get(item.getProductId()), item.getQuantity()),
+                        (a, b) -> a.withQuantity(a.quantity() + b.quantity()));
+            }
+            return from(lines);
+        }
+
+        /** True when the snapshot describes exactly these cart lines. */
+        public boolean matches(List<CartItem> items) {
+            if (items.size() != lines.size()) return false;
+            for (CartItem item : items) {
+                Line line = lines.get(item.getProductId());
+                if (line == null || line.quantity() != item.getQuantity()) return false;
+            }
+            return true;
+        }
+
+        Snapshot withQuantityDelta(Product product, int delta) {
+            Map<Long, Line> copy = new HashMap<>(lines);
+            Line current = copy.get(product.getId());
+            int quantity = (current != null ? current.quantity() : 0) + delta;
+            if (quantity <= 0) {
+                copy.remove(product.getId());
+            } else {
+                copy.put(product.getId(), Line.of(product, quantity));
+            }
+            return from(copy);
+        }
+
+        Snapshot without(Long productId) {
+            if (!lines.containsKey(productId)) return this;
+            Map<Long, Line> copy = new HashMap<>(lines);
+            copy.remove(productId);
+            return from(copy);
+        }
+
+        private static Snapshot from(Map<Long, Line> lines) {
+            double price = 0.0;
+            double carbon = 0.0;
+            int count = 0;
+            for (Line line : lines.values()) {
+                price += line.price() * line.quantity();
+                carbon += line.lineCarbon();
+                count += line.quantity();
+            }
+            return new Snapshot(price, carbon, count, Collections.unmodifiableMap(lines));
+        }
+    }
+}
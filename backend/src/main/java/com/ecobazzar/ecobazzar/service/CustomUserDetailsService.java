@@ -1,33 +1,32 @@
 package com.ecobazzar.ecobazzar.service;
 
-import com.ecobazzar.ecobazzar.model.User;
-import com.ecobazzar.ecobazzar.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
+import com.ecobazzar.ecobazzar.security.Role;
+
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository repo;
+    private final UserIdentityCache identities;
 
-    public CustomUserDetailsService(UserRepository repo) {
-        this.repo = repo;
+    public CustomUserDetailsService(UserIdentityCache identities) {
+        this.identities = identities;
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = repo.findByEmail(email)
+        UserIdentityCache.UserIdentity user = identities.byEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        // ✅ Correct return statement — syntax checked
+        // the stored role already carries the ROLE_ prefix; Role parses either form
         return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                Collections.singleton(() -> "ROLE_" + user.getRole().toUpperCase())
+                user.email(),
+                user.passwordHash(),
+                Role.grantedAuthorities(Role.maskOf(user.role()))
         );
     }
 }
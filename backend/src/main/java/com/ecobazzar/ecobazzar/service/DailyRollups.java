@@ -0,0 +1,208 @@
+package com.ecobazzar.ecobazzar.service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecobazzar.ecobazzar.model.Order;
+import com.ecobazzar.ecobazzar.model.OrderItem;
+import com.ecobazzar.ecobazzar.model.Product;
+
+/**
+ * Per-day totals in {@code user_daily_totals} (user x day) and {@code seller_daily_totals}
+ * (seller x day), so the dashboard series read a handful of pre-aggregated rows instead of
+ * grouping raw orders on every load, plus each user's lifetime totals in {@code user_order_totals}.
+ *
+ * Checkout adds each order to its rows inside the checkout transaction. {@link #backfill} rebuilds
+ * a date range from the order tables and is run from the admin API
+ * ({@code POST /api/admin/reports/rollups/rebuild}). Orders placed before the rollups existed are
+ * brought in once per database by {@link #backfillHistoryOnce}: it runs on the scheduler rather than
+ * at startup, only the instance that claims the {@code rollup_watermark} row does the work, and the
+ * watermark it sets when the history is covered stops every instance from checking again.
+ */
+@Component
+public class DailyRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyRollups.class);
+
+    // one statement per row, like CartRepository.upsertQuantity: a separate UPDATE then INSERT takes
+    // gap locks under REPEATABLE READ and deadlocks two checkouts opening the same day row
+    private static final String UPSERT_USER = "INSERT INTO user_daily_totals "
+            + "(user_id, order_day, order_count, spent, carbon_used, carbon_saved) VALUES (?, ?, 1, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + 1, spent = spent + VALUES(spent), "
+            + "carbon_used = carbon_used + VALUES(carbon_used), carbon_saved = carbon_saved + VALUES(carbon_saved)";
+    private static final String UPSERT_SUMMARY = "INSERT INTO user_order_totals "
+            + "(user_id, order_count, spent, carbon_used, carbon_saved) VALUES (?, 1, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + 1, spent = spent + VALUES(spent), "
+            + "carbon_used = carbon_used + VALUES(carbon_used), carbon_saved = carbon_saved + VALUES(carbon_saved)";
+    private static final String UPSERT_SELLER = "INSERT INTO seller_daily_totals "
+            + "(seller_id, order_day, order_count, units, revenue) VALUES (?, ?, 1, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + 1, units = units + VALUES(units), "
+            + "revenue = revenue + VALUES(revenue)";
+    // every instance seeds the single watermark row; whichever runs first creates it
+    private static final String SEED_WATERMARK =
+            "INSERT INTO rollup_watermark (id) VALUES (1) ON DUPLICATE KEY UPDATE id = id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final UserSummaryCache userSummaries;
+    private final int chunkDays;
+    private final Duration claimLease;
+    // once the watermark is seen, the scheduled check stops touching the database
+    private volatile boolean historyBackfilled;
+
+    public DailyRollups(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                        UserSummaryCache userSummaries,
+                        @Value("${reports.rollups.backfill-chunk-days:31}") int chunkDays,
+                        @Value("${reports.rollups.backfill-lease-minutes:60}") long leaseMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.userSummaries = userSummaries;
+        this.chunkDays = Math.max(1, chunkDays);
+        this.claimLease = Duration.ofMinutes(Math.max(1, leaseMinutes));
+    }
+
+    /**
+     * Backfills every order placed before the rollups were maintained, once per database. The instance
+     * that claims the watermark row runs it; the others find the claim taken and look again on the next
+     * check, so a backfill that fails or dies with its instance is retried once its claim lapses.
+     */
+    @Scheduled(initialDelayString = "${reports.rollups.backfill-check-ms:60000}",
+               fixedDelayString = "${reports.rollups.backfill-check-ms:60000}")
+    public void backfillHistoryOnce() {
+        if (historyBackfilled) return;
+        jdbcTemplate.update(SEED_WATERMARK);
+        Integer done = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM rollup_watermark WHERE id = 1 AND backfilled_at IS NOT NULL", Integer.class);
+        if (done != null && done > 0) {
+            historyBackfilled = true;
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = jdbcTemplate.update("UPDATE rollup_watermark SET claimed_until = ? WHERE id = 1 "
+                        + "AND backfilled_at IS NULL AND (claimed_until IS NULL OR claimed_until < ?)",
+                Timestamp.valueOf(now.plus(claimLease)), Timestamp.valueOf(now));
+        if (claimed == 0) {
+            log.info("Daily rollup history is being backfilled by another instance");
+            return;
+        }
+        try {
+            Date first = jdbcTemplate.queryForObject("SELECT MIN(order_date) FROM orders", Date.class);
+            LocalDate from = first != null ? first.toLocalDate() : LocalDate.now();
+            backfill(from, LocalDate.now().plusDays(1));
+        } catch (RuntimeException e) {
+            jdbcTemplate.update("UPDATE rollup_watermark SET claimed_until = NULL WHERE id = 1");
+            log.error("Daily rollup history backfill failed; it is retried on the next check", e);
+        }
+    }
+
+    /**
+     * Adds a placed order to its user's day and lifetime rows and to the day row of every seller in it;
+     * joins the caller's transaction.
+     */
+    public void orderPlaced(Order order, List<OrderItem> items, Map<Long, Product> products) {
+        LocalDate day = order.getOrderDate();
+        Date sqlDay = Date.valueOf(day);
+        jdbcTemplate.update(UPSERT_USER, order.getUserId(), sqlDay, order.getTotalPrice(), order.getCarbonUsed(), order.getCarbonSaved());
+        jdbcTemplate.update(UPSERT_SUMMARY, order.getUserId(), order.getTotalPrice(), order.getCarbonUsed(), order.getCarbonSaved());
+        userSummaries.evict(order.getUserId());
+
+        // sorted, so concurrent checkouts lock shared seller rows in the same order
+        Map<Long, SellerSale> bySeller = new TreeMap<>();
+        for (OrderItem item : items) {
+            Product p = products.get(item.getProductId());
+            if (p == null || p.getSeller() == null) continue;
+            double price = p.getPrice() != null ? p.getPrice() : 0.0;
+            bySeller.merge(p.getSeller().getId(), new SellerSale(item.getQuantity(), price * item.getQuantity()), SellerSale::plus);
+        }
+        bySeller.forEach((sellerId, sale) ->
+                jdbcTemplate.update(UPSERT_SELLER, sellerId, sqlDay, sale.units(), sale.revenue()));
+    }
+
+    /**
+     * Recomputes the rollup rows for [from, to) from orders and order items, one chunk of days per
+     * transaction, then the users' lifetime rows from their days. Seller revenue is re-derived from current product prices, as the order items do
+     * not keep the price paid.
+     */
+    public Backfill backfill(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        int userRows = 0;
+        int sellerRows = 0;
+        for (LocalDate lo = from; lo.isBefore(to); lo = lo.plusDays(chunkDays)) {
+            LocalDate hi = lo.plusDays(chunkDays).isBefore(to) ? lo.plusDays(chunkDays) : to;
+            Date a = Date.valueOf(lo);
+            Date b = Date.valueOf(hi);
+            int[] written = tx.execute(status -> {
+                jdbcTemplate.update("DELETE FROM user_daily_totals WHERE order_day >= ? AND order_day < ?", a, b);
+                int users = jdbcTemplate.update("INSERT INTO user_daily_totals "
+                        + "(user_id, order_day, order_count, spent, carbon_used, carbon_saved) "
+                        + "SELECT user_id, order_date, COUNT(*), COALESCE(SUM(total_price), 0), "
+                        + "COALESCE(SUM(carbon_used), 0), COALESCE(SUM(carbon_saved), 0) "
+                        + "FROM orders WHERE order_date >= ? AND order_date < ? GROUP BY user_id, order_date", a, b);
+                jdbcTemplate.update("DELETE FROM seller_daily_totals WHERE order_day >= ? AND order_day < ?", a, b);
+                int sellers = jdbcTemplate.update("INSERT INTO seller_daily_totals "
+                        + "(seller_id, order_day, order_count, units, revenue) "
+                        + "SELECT p.seller_id, o.order_date, COUNT(DISTINCT o.id), SUM(oi.quantity), "
+                        + "COALESCE(SUM(oi.quantity * COALESCE(p.price, 0)), 0) "
+                        + "FROM order_items oi JOIN orders o ON oi.order_id = o.id JOIN products p ON oi.product_id = p.id "
+                        + "WHERE p.seller_id IS NOT NULL AND o.order_date >= ? AND o.order_date < ? "
+                        + "GROUP BY p.seller_id, o.order_date", a, b);
+                return new int[]{users, sellers};
+            });
+            userRows += written[0];
+            sellerRows += written[1];
+        }
+        // lifetime totals are the sum of the user's days, so any rebuilt range invalidates them
+        rebuildUserSummaries();
+        if (coversHistory(from, to)) markHistoryBackfilled();
+        log.info("Daily rollups rebuilt for [{}, {}): {} user rows, {} seller rows in {} ms",
+                from, to, userRows, sellerRows, (System.nanoTime() - start) / 1_000_000);
+        return new Backfill(from, to, userRows, sellerRows);
+    }
+
+    private void rebuildUserSummaries() {
+        tx.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM user_order_totals");
+            jdbcTemplate.update("INSERT INTO user_order_totals (user_id, order_count, spent, carbon_used, carbon_saved) "
+                    + "SELECT user_id, SUM(order_count), SUM(spent), SUM(carbon_used), SUM(carbon_saved) "
+                    + "FROM user_daily_totals GROUP BY user_id");
+        });
+        userSummaries.evictAll();
+    }
+
+    // a range from the first order through today leaves nothing older for checkout to have missed
+    private boolean coversHistory(LocalDate from, LocalDate to) {
+        Date first = jdbcTemplate.queryForObject("SELECT MIN(order_date) FROM orders", Date.class);
+        return (first == null || !from.isAfter(first.toLocalDate())) && to.isAfter(LocalDate.now());
+    }
+
+    private void markHistoryBackfilled() {
+        jdbcTemplate.update(SEED_WATERMARK);
+        jdbcTemplate.update("UPDATE rollup_watermark SET backfilled_at = ?, claimed_until = NULL WHERE id = 1",
+                Timestamp.valueOf(LocalDateTime.now()));
+        historyBackfilled = true;
+    }
+
+    private record SellerSale(long units, double revenue) {
+        SellerSale plus(SellerSale o) {
+            return new SellerSale(units + o.units, revenue + o.revenue);
+        }
+    }
+
+    public record Backfill(LocalDate from, LocalDate to, int userRows, int sellerRows) {}
+}
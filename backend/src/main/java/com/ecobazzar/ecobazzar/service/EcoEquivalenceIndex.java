@@ -0,0 +1,216 @@
+package com.ecobazzar.ecobazzar.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import com.ecobazzar.ecobazzar.model.Product;
+import com.ecobazzar.ecobazzar.repository.ProductRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory "eco ↔ conventional counterpart" index used by checkout to award carbon savings.
+ * Conventional products are bucketed by normalized keyword and the best counterpart of every
+ * eco-certified product is resolved on the write path, so checkout only does a map lookup.
+ * Matching rules are the ones checkout used to apply against a full scan of non-certified products.
+ */
+@Component
+public class EcoEquivalenceIndex {
+
+    private static final Pattern QUALIFIERS = Pattern.compile(
+            "\\b(eco|organic|friendly|certified|premium|gold|silver|natural|bamboo|bio|pure|green|kg|g|pack|1kg|5kg|10kg|litre|l|ml|gm)\\b");
+    private static final Pattern NON_LETTERS = Pattern.compile("[^a-z\\s]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ProductRepository productRepository;
+
+    // guarded by "this"; only the resolved matches are read outside the lock, so a match is only ever
+    // replaced in one put, never removed first: checkout must see the old counterpart or the new one
+    private final Map<Long, Entry> conventional = new HashMap<>();
+    private final Map<String, Map<Long, Entry>> conventionalByKeyword = new HashMap<>();
+    private final Map<Long, Entry> eco = new HashMap<>();
+
+    private final Map<Long, Match> matches = new ConcurrentHashMap<>();
+
+    public EcoEquivalenceIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        conventional.clear();
+        conventionalByKeyword.clear();
+        eco.clear();
+
+        List<Product> products = productRepository.findAll();
+        for (Product p : products) {
+            Entry entry = Entry.of(p);
+            if (Boolean.TRUE.equals(p.getEcoCertified())) {
+                eco.put(entry.id(), entry);
+            } else {
+                addConventional(entry);
+            }
+        }
+        for (Entry e : eco.values()) {
+            resolve(e);
+        }
+        matches.keySet().retainAll(eco.keySet());
+    }
+
+    /** Best conventional counterpart of an eco-certified product, if any. */
+    public Optional<Match> findMatch(Long ecoProductId) {
+        return ecoProductId == null ? Optional.empty() : Optional.ofNullable(matches.get(ecoProductId));
+    }
+
+    /** Carbon saved per unit by buying the eco product instead of its counterpart; never negative. */
+    public double carbonSavedPerUnit(Long ecoProductId) {
+        return findMatch(ecoProductId)
+                .map(m -> Math.max(0.0, m.carbonSavedPerUnit()))
+                .orElse(0.0);
+    }
+
+    public synchronized void onProductSaved(Product product) {
+        if (product == null || product.getId() == null) return;
+
+        Entry entry = Entry.of(product);
+        boolean wasConventional = conventional.containsKey(entry.id());
+        removeInternal(entry.id());
+
+        if (Boolean.TRUE.equals(product.getEcoCertified())) {
+            eco.put(entry.id(), entry);
+            if (wasConventional) {
+                refreshMatchesOf(entry.id());
+            }
+            resolve(entry);
+        } else {
+            matches.remove(entry.id());
+            addConventional(entry);
+            for (Entry e : eco.values()) {
+                Match current = matches.get(e.id());
+                if (current != null && current.conventionalProductId().equals(entry.id())) {
+                    resolve(e);
+                } else if (isCandidate(e, entry)
+                        && (current == null || closer(e, entry, conventional.get(current.conventionalProductId())))) {
+                    matches.put(e.id(), Match.of(e, entry));
+                }
+            }
+        }
+    }
+
+    public synchronized void onProductDeleted(Long productId) {
+        if (productId == null) return;
+        boolean wasConventional = conventional.containsKey(productId);
+        removeInternal(productId);
+        matches.remove(productId);
+        if (wasConventional) {
+            refreshMatchesOf(productId);
+        }
+    }
+
+    static String extractKeyword(String name) {
+        if (name == null || name.isBlank()) return "product";
+
+        String cleaned = QUALIFIERS.matcher(name.toLowerCase()).replaceAll("");
+        cleaned = NON_LETTERS.matcher(cleaned).replaceAll(" ");
+        cleaned = WHITESPACE.matcher(cleaned).replaceAll(" ").trim();
+
+        return Arrays.stream(WHITESPACE.split(cleaned))
+                .filter(w -> w.length() >= 3)
+                .max(Comparator.comparingInt(String::length))
+                .orElse("product");
+    }
+
+    private void addConventional(Entry entry) {
+        conventional.put(entry.id(), entry);
+        conventionalByKeyword.computeIfAbsent(entry.keyword(), k -> new HashMap<>()).put(entry.id(), entry);
+    }
+
+    private void removeInternal(Long id) {
+        eco.remove(id);
+        Entry old = conventional.remove(id);
+        if (old != null) {
+            Map<Long, Entry> bucket = conventionalByKeyword.get(old.keyword());
+            if (bucket != null) {
+                bucket.remove(id);
+                if (bucket.isEmpty()) conventionalByKeyword.remove(old.keyword());
+            }
+        }
+    }
+
+    private void refreshMatchesOf(Long conventionalId) {
+        for (Entry e : eco.values()) {
+            Match current = matches.get(e.id());
+            if (current != null && current.conventionalProductId().equals(conventionalId)) {
+                resolve(e);
+            }
+        }
+    }
+
+    private void resolve(Entry ecoEntry) {
+        Entry best = ecoEntry.named() ? closestConventional(ecoEntry) : null;
+        if (best != null) {
+            matches.put(ecoEntry.id(), Match.of(ecoEntry, best));
+        } else {
+            matches.remove(ecoEntry.id());
+        }
+    }
+
+    private Entry closestConventional(Entry ecoEntry) {
+        Entry best = null;
+        for (Map.Entry<String, Map<Long, Entry>> bucket : conventionalByKeyword.entrySet()) {
+            String keyword = bucket.getKey();
+            boolean wholeBucket = ecoEntry.keyword().equals(keyword) || ecoEntry.name().contains(keyword);
+            for (Entry candidate : bucket.getValue().values()) {
+                if (wholeBucket || candidate.name().contains(ecoEntry.keyword())) {
+                    if (closer(ecoEntry, candidate, best)) {
+                        best = candidate;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static boolean isCandidate(Entry ecoEntry, Entry candidate) {
+        if (!ecoEntry.named()) return false;
+        return ecoEntry.keyword().equals(candidate.keyword())
+                || ecoEntry.name().contains(candidate.keyword())
+                || candidate.name().contains(ecoEntry.keyword());
+    }
+
+    // ties go to the lowest id, i.e. the first row of the primary-key ordered scan checkout used to do
+    private static boolean closer(Entry ecoEntry, Entry candidate, Entry best) {
+        if (best == null) return true;
+        double d = Math.abs(candidate.effectiveCarbon() - ecoEntry.effectiveCarbon());
+        double bestD = Math.abs(best.effectiveCarbon() - ecoEntry.effectiveCarbon());
+        if (d != bestD) return d < bestD;
+        return candidate.id() < best.id();
+    }
+
+    private record Entry(Long id, boolean named, String name, String keyword, Double carbonImpact) {
+        static Entry of(Product p) {
+            String name = p.getName() != null ? p.getName().toLowerCase() : "";
+            return new Entry(p.getId(), p.getName() != null, name, extractKeyword(p.getName()), p.getCarbonImpact());
+        }
+
+        double effectiveCarbon() {
+            return carbonImpact != null ? carbonImpact : 0.0;
+        }
+    }
+
+    public record Match(Long conventionalProductId, double conventionalCarbon, double carbonSavedPerUnit) {
+        private static Match of(Entry ecoEntry, Entry conventional) {
+            double ecoCarbon = ecoEntry.effectiveCarbon();
+            double conventionalCarbon = conventional.carbonImpact() != null ? conventional.carbonImpact() : ecoCarbon;
+            return new Match(conventional.id(), conventionalCarbon, conventionalCarbon - ecoCarbon);
+        }
+    }
+}
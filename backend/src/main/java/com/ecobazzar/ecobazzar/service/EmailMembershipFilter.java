@@ -0,0 +1,174 @@
+package com.ecobazzar.ecobazzar.service;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bloom filter over the lowercased emails in {@code users}, so registration can skip the
+ * {@code existsByEmail} probe for addresses that were never seen. A "no" is certain; a "maybe"
+ * still goes to the database, and the unique constraint on {@code users.email} stays the final word.
+ *
+ * Sized at startup for twice the current user count (at least {@code expected-insertions}); the
+ * fill-based false-positive estimate and the false positives actually seen are both exported.
+ */
+@Component
+public final class EmailMembershipFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailMembershipFilter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long expectedInsertions;
+    private final double targetFpp;
+
+    private volatile Bits bits;
+
+    private final Counter absent;
+    private final Counter present;
+    private final Counter falsePositives;
+
+    public EmailMembershipFilter(JdbcTemplate jdbcTemplate,
+                                 @Value("${auth.email-filter.expected-insertions:100000}") long expectedInsertions,
+                                 @Value("${auth.email-filter.fpp:0.01}") double targetFpp,
+                                 @Value("${auth.email-filter.fetch-size:-2147483648}") int fetchSize,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.expectedInsertions = expectedInsertions;
+        this.targetFpp = targetFpp;
+
+        this.absent = Counter.builder("auth.email_filter.checks").tag("result", "absent").register(meterRegistry);
+        this.present = Counter.builder("auth.email_filter.checks").tag("result", "maybe").register(meterRegistry);
+        this.falsePositives = Counter.builder("auth.email_filter.false_positives").register(meterRegistry);
+        Gauge.builder("auth.email_filter.expected_fpp", this, f -> f.bits != null ? f.bits.expectedFpp() : 1.0)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        long start = System.nanoTime();
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        Bits fresh = Bits.sized(Math.max(expectedInsertions, 2 * (count != null ? count : 0L)), targetFpp);
+        jdbcTemplate.query("SELECT email FROM users", rs -> {
+            fresh.add(normalize(rs.getString(1)));
+        });
+        bits = fresh;
+        log.info("Email filter built from {} users in {} ms: {} bits, {} hashes, expected fpp {}",
+                fresh.inserted(), (System.nanoTime() - start) / 1_000_000, fresh.size(), fresh.hashes(),
+                String.format(Locale.ROOT, "%.3g", fresh.expectedFpp()));
+    }
+
+    /** False means no user has this email; true means one might. */
+    public boolean mightContain(String email) {
+        Bits current = bits;
+        boolean maybe = current == null || current.mightContain(normalize(email));
+        (maybe ? present : absent).increment();
+        return maybe;
+    }
+
+    public void add(String email) {
+        Bits current = bits;
+        if (current != null) current.add(normalize(email));
+    }
+
+    /** The filter said maybe, the database said no. */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static final class Bits {
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashes;
+        private final AtomicLong inserted = new AtomicLong();
+
+        private Bits(long size, int hashes) {
+            this.words = new AtomicLongArray((int) ((size + 63) / 64));
+            this.size = size;
+            this.hashes = hashes;
+        }
+
+        static Bits sized(long n, double fpp) {
+            long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            m = Math.max(64, Math.min(m, 64L * Integer.MAX_VALUE));
+            int k = (int) Math.max(1, Math.min(16, Math.round((double) m / n * Math.log(2))));
+            return new Bits(m, k);
+        }
+
+        void add(String key) {
+            long h1 = mix(fnv(key));
+            long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long old;
+                while (((old = words.get(word)) & mask) == 0 && !words.compareAndSet(word, old, old | mask)) {
+                    // another writer set a different bit in this word; retry
+                }
+            }
+            inserted.incrementAndGet();
+        }
+
+        boolean mightContain(String key) {
+            long h1 = mix(fnv(key));
+            long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+            }
+            return true;
+        }
+
+        double expectedFpp() {
+            return Math.pow(1 - Math.exp(-(double) hashes * inserted.get() / size), hashes);
+        }
+
+        long size() {
+            return size;
+        }
+
+        int hashes() {
+            return hashes;
+        }
+
+        long inserted() {
+            return inserted.get();
+        }
+
+        private static long fnv(String s) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < s.length(); i++) {
+                h ^= s.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            return h;
+        }
+
+        // MurmurHash3 finalizer
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecobazzar.ecobazzar.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecobazzar.ecobazzar.model.CartItem;
+import com.ecobazzar.ecobazzar.repository.CartRepository;
+
+@Component
+@ConditionalOnProperty(name = "cart.store.mode", havingValue = "jpa", matchIfMissing = true)
+public class JpaCartStore implements CartStore {
+
+    private final CartRepository cartRepository;
+
+    public JpaCartStore(CartRepository cartRepository) {
+        this.cartRepository = cartRepository;
+    }
+
+    @Override
+    public List<CartItem> findByUserId(Long userId) {
+        return cartRepository.findByUserId(userId);
+    }
+
+    @Override
+    public Optional<CartItem> findById(Long userId, Long cartItemId) {
+        return cartRepository.findById(cartItemId);
+    }
+
+    @Override
+    @Transactional
+    public CartItem addQuantity(Long userId, Long productId, int quantity) {
+        cartRepository.upsertQuantity(userId, productId, quantity);
+        return cartRepository.findByUserIdAndProductId(userId, productId)
+                .orElseThrow(() -> new RuntimeException("Cart item not found"));
+    }
+
+    @Override
+    public void delete(Long userId, Long cartItemId) {
+        cartRepository.deleteById(cartItemId);
+    }
+
+    @Override
+    public void flush(Long userId) {
+        // every change is already in cart_item
+    }
+
+    @Override
+    public void checkedOut(Long userId, Collection<Long> cartItemIds) {
+        // nothing cached
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecobazzar.ecobazzar.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes orders as CSV straight from a forward-only JDBC cursor, so memory use does not depend on
+ * the number of rows. Rows come in id order; a client that lost the connection resumes with
+ * {@code afterId} set to the last id it received.
+ */
+@Component
+public class OrderCsvExporter {
+
+    static final String HEADER = "OrderId,UserId,TotalPrice,CarbonUsed,CarbonSaved,OrderDate\n";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderCsvExporter(JdbcTemplate jdbcTemplate,
+                            @Value("${reports.export.fetch-size:-2147483648}") int fetchSize) {
+        // own copy: the fetch size must not leak into other users of the shared template
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /** {@code from} is inclusive, {@code to} exclusive; null bounds, afterId and limit are open. */
+    public record Range(LocalDate from, LocalDate to, Long afterId, Integer limit) {
+
+        public static final Range ALL = new Range(null, null, null, null);
+    }
+
+    public void write(OutputStream out, Range range, boolean gzip) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+        Writer csv = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+        csv.write(HEADER);
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, user_id, total_price, carbon_used, carbon_saved, order_date FROM orders WHERE 1 = 1");
+        List<Object> args = new ArrayList<>(4);
+        if (range.afterId() != null) {
+            sql.append(" AND id > ?");
+            args.add(range.afterId());
+        }
+        if (range.from() != null) {
+            sql.append(" AND order_date >= ?");
+            args.add(Date.valueOf(range.from()));
+        }
+        if (range.to() != null) {
+            sql.append(" AND order_date < ?");
+            args.add(Date.valueOf(range.to()));
+        }
+        sql.append(" ORDER BY id");
+        if (range.limit() != null) {
+            sql.append(" LIMIT ?");
+            args.add(range.limit());
+        }
+
+        try {
+            jdbcTemplate.query(sql.toString(), rs -> {
+                try {
+                    csv.write(Long.toString(rs.getLong(1)));
+                    csv.write(',');
+                    csv.write(Long.toString(rs.getLong(2)));
+                    csv.write(',');
+                    csv.write(Double.toString(rs.getDouble(3)));
+                    csv.write(',');
+                    csv.write(Double.toString(rs.getDouble(4)));
+                    csv.write(',');
+                    csv.write(Double.toString(rs.getDouble(5)));
+                    csv.write(',');
+                    Date date = rs.getDate(6);
+                    if (date != null) csv.write(date.toLocalDate().toString());
+                    csv.write('\n');
+                } catch (IOException e) {
+                    // client went away: stop reading instead of draining the cursor
+                    throw new UncheckedIOException(e);
+                }
+            }, args.toArray());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        csv.flush();
+        if (target instanceof GZIPOutputStream gz) gz.finish();
+    }
+}
@@ -1,15 +1,15 @@
 package com.ecobazzar.ecobazzar.service;
 
-import java.time.LocalDate;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import jakarta.transaction.Transactional;
-
+import com.ecobazzar.ecobazzar.dto.OrderView;
 import com.ecobazzar.ecobazzar.model.CartItem;
 import com.ecobazzar.ecobazzar.model.Order;
 import com.ecobazzar.ecobazzar.model.OrderItem;
@@ -17,41 +17,68 @@ import com.ecobazzar.ecobazzar.model.Product;
 import com.ecobazzar.ecobazzar.repository.CartRepository;
 import com.ecobazzar.ecobazzar.repository.OrderItemRepository;
 import com.ecobazzar.ecobazzar.repository.OrderRepository;
-import com.ecobazzar.ecobazzar.repository.ProductRepository;
 
 @Service
 public class OrderService {
 
     private final CartRepository cartRepository;
-    private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
+    private final EcoEquivalenceIndex ecoEquivalenceIndex;
+    private final ProductHydrator productHydrator;
+    private final CartStore cartStore;
+    private final CartTotalsTracker cartTotals;
+    private final PlatformTotalsService platformTotals;
+    private final DailyRollups dailyRollups;
+    private final TransactionTemplate tx;
 
     public OrderService(CartRepository cartRepository,
-                        ProductRepository productRepository,
                         OrderRepository orderRepository,
-                        OrderItemRepository orderItemRepository) {
+                        OrderItemRepository orderItemRepository,
+                        EcoEquivalenceIndex ecoEquivalenceIndex,
+                        ProductHydrator productHydrator,
+                        CartStore cartStore,
+                        CartTotalsTracker cartTotals,
+                        PlatformTotalsService platformTotals,
+                        DailyRollups dailyRollups,
+                        PlatformTransactionManager transactionManager) {
         this.cartRepository = cartRepository;
-        this.productRepository = productRepository;
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
+        this.ecoEquivalenceIndex = ecoEquivalenceIndex;
+        this.productHydrator = productHydrator;
+        this.cartStore = cartStore;
+        this.cartTotals = cartTotals;
+        this.platformTotals = platformTotals;
+        this.dailyRollups = dailyRollups;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    public OrderView checkout(Long userId) {
+        // in write-behind mode the cart may only exist in memory; checkout works on the table. The
+        // flush writes in its own transaction, so it runs before checkout takes a connection of its own
+        cartStore.flush(userId);
+        return tx.execute(status -> placeOrder(userId));
     }
 
-    @Transactional
-    public Order checkout(Long userId) {
+    private OrderView placeOrder(Long userId) {
         List<CartItem> cartItems = cartRepository.findByUserId(userId);
 
         if (cartItems.isEmpty()) {
             throw new RuntimeException("Cart is Empty! Cannot Checkout");
         }
 
+        Map<Long, Product> products = productHydrator.forCart(cartItems);
+
         double totalPrice = 0.0;
         double totalCarbonUsed = 0.0;
         double totalCarbonSaved = 0.0;
 
         for (CartItem item : cartItems) {
-            Product product = productRepository.findById(item.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            Product product = products.get(item.getProductId());
+            if (product == null) {
+                throw new RuntimeException("Product not found");
+            }
 
             double price = product.getPrice() != null ? product.getPrice() : 0.0;
             double carbon = product.getCarbonImpact() != null ? product.getCarbonImpact() : 0.0;
@@ -61,69 +88,38 @@ public class OrderService {
 
             // ONLY award savings when user bought an ECO-CERTIFIED product
             if (Boolean.TRUE.equals(product.getEcoCertified())) {
-                List<Product> nonEcoCandidates = productRepository.findByEcoCertifiedFalse();
-
-                Optional<Product> matchedConventional = nonEcoCandidates.stream()
-                    .filter(p -> {
-                        String ecoKey = extractKeyword(product.getName());
-                        String nonEcoKey = extractKeyword(p.getName());
-                        String ecoName = product.getName().toLowerCase();
-                        String nonEcoName = p.getName().toLowerCase();
-
-                        return ecoKey.equals(nonEcoKey) ||
-                               ecoName.contains(nonEcoKey) ||
-                               nonEcoName.contains(ecoKey);
-                    })
-                    .min(Comparator.comparingDouble(p -> {
-                        double otherCarbon = p.getCarbonImpact() != null ? p.getCarbonImpact() : 0.0;
-                        return Math.abs(otherCarbon - carbon);
-                    }));
-
-                if (matchedConventional.isPresent()) {
-                    double conventionalCarbon = matchedConventional.get().getCarbonImpact() != null
-                            ? matchedConventional.get().getCarbonImpact() : carbon;
-                    double savedPerUnit = conventionalCarbon - carbon;
-                    if (savedPerUnit > 0) {
-                        totalCarbonSaved += savedPerUnit * item.getQuantity();
-                    }
-                }
+                totalCarbonSaved += ecoEquivalenceIndex.carbonSavedPerUnit(product.getId()) * item.getQuantity();
             }
         }
 
         double netCarbon = totalCarbonUsed - totalCarbonSaved;
 
-        Order order = new Order(null, userId, LocalDate.now(), totalCarbonUsed, totalCarbonSaved, netCarbon, totalPrice);
+        LocalDateTime now = LocalDateTime.now();
+        Order order = new Order(null, userId, now.toLocalDate(), totalCarbonUsed, totalCarbonSaved, netCarbon, totalPrice);
+        order.setCreatedAt(now);
         Order savedOrder = orderRepository.save(order);
 
+        List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
+        List<Long> cartItemIds = new ArrayList<>(cartItems.size());
         for (CartItem item : cartItems) {
-            OrderItem orderItem = new OrderItem();
-            orderItem.setOrderId(savedOrder.getId());
-            orderItem.setProductId(item.getProductId());
-            orderItem.setQuantity(item.getQuantity());
-            orderItemRepository.save(orderItem);
+            orderItems.add(new OrderItem(null, savedOrder.getId(), item.getProductId(), item.getQuantity()));
+            cartItemIds.add(item.getId());
         }
 
-        cartRepository.deleteAll(cartItems);
-        return savedOrder;
+        // one JDBC batch for the items and one DELETE for the cart, whatever the cart size
+        orderItemRepository.saveAll(orderItems);
+        // before the DELETE, so a concurrent write-behind flush cannot re-insert an ordered line
+        cartStore.checkedOut(userId, cartItemIds);
+        cartRepository.deleteByUserIdAndIdIn(userId, cartItemIds);
+        cartTotals.invalidate(userId);
+        // counters last, so their row locks are held as briefly as possible before the commit
+        dailyRollups.orderPlaced(savedOrder, orderItems, products);
+        platformTotals.orderPlaced(totalPrice, totalCarbonUsed, totalCarbonSaved);
+        return OrderView.of(savedOrder);
     }
 
     // THIS WAS MISSING — NOW ADDED
-    public List<Order> getOrdersByUserId(Long userId) {
-        return orderRepository.findByUserId(userId);
-    }
-
-    private String extractKeyword(String name) {
-        if (name == null || name.isBlank()) return "product";
-
-        String cleaned = name.toLowerCase()
-                .replaceAll("\\b(eco|organic|friendly|certified|premium|gold|silver|natural|bamboo|bio|pure|green|kg|g|pack|1kg|5kg|10kg|litre|l|ml|gm)\\b", "")
-                .replaceAll("[^a-z\\s]", " ")
-                .replaceAll("\\s+", " ")
-                .trim();
-
-        return Arrays.stream(cleaned.split("\\s+"))
-                .filter(w -> w.length() >= 3)
-                .max(Comparator.comparingInt(String::length))
-                .orElse("product");
+    public List<OrderView> getOrdersByUserId(Long userId) {
+        return orderRepository.findViewsByUserId(userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.ecobazzar.ecobazzar.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecobazzar.ecobazzar.model.PlatformTotals;
+import com.ecobazzar.ecobazzar.repository.PlatformTotalsRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Platform-wide totals for the admin report, maintained by the writes that change them instead of
+ * being re-added from every order on each read.
+ *
+ * The totals are spread over {@code platform.totals.slots} rows so concurrent checkouts rarely wait
+ * on the same row lock; a read adds up the slots. {@link #reconcile()} recomputes everything from
+ * the source tables, reports the drift and rewrites the slots. It runs at startup when the table is
+ * empty and on {@code platform.totals.reconcile-cron}.
+ */
+@Service
+public class PlatformTotalsService {
+
+    private static final Logger log = LoggerFactory.getLogger(PlatformTotalsService.class);
+
+    private static final double MONEY_TOLERANCE = 0.005;
+
+    // a slot another instance has already created is left alone, so instances that start
+    // together against an empty table do not fail on the primary key
+    private static final String SEED_SLOT =
+            "INSERT INTO platform_totals (slot, order_count, revenue, carbon_used, carbon_saved, user_count, product_count) "
+                    + "VALUES (?, 0, 0, 0, 0, 0, 0) ON DUPLICATE KEY UPDATE slot = slot";
+
+    private final PlatformTotalsRepository totalsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final int slots;
+    private final Counter drifts;
+
+    public PlatformTotalsService(PlatformTotalsRepository totalsRepository, JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${platform.totals.slots:8}") int slots,
+                                 MeterRegistry meterRegistry) {
+        this.totalsRepository = totalsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.slots = Math.max(1, slots);
+        this.drifts = Counter.builder("platform.totals.drift").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (totalsRepository.count() == 0) {
+            reconcile();
+        }
+    }
+
+    /** Joins the caller's transaction, so the totals move only if the order commits. */
+    public void orderPlaced(double revenue, double carbonUsed, double carbonSaved) {
+        totalsRepository.addOrder(slot(), revenue, carbonUsed, carbonSaved);
+    }
+
+    public void userAdded() {
+        totalsRepository.addUsers(slot(), 1);
+    }
+
+    public void productAdded() {
+        totalsRepository.addProducts(slot(), 1);
+    }
+
+    public void productRemoved() {
+        totalsRepository.addProducts(slot(), -1);
+    }
+
+    public Totals current() {
+        return sum(totalsRepository.findAll());
+    }
+
+    /** Rebuilds the totals from orders, users and products and returns what was stored before and after. */
+    @Scheduled(cron = "${platform.totals.reconcile-cron:0 30 3 * * *}")
+    public Reconciliation reconcile() {
+        Reconciliation result = tx.execute(status -> {
+            seedSlots();
+            // lock every slot first: checkouts that have not incremented yet wait for us, and their
+            // orders are not counted below, so they are neither lost nor counted twice
+            List<PlatformTotals> rows = totalsRepository.lockAll();
+            Totals recorded = sum(rows);
+            Totals actual = computeFromSource();
+
+            for (PlatformTotals row : rows) {
+                boolean first = row.getSlot() == 0;
+                row.setOrderCount(first ? actual.orders() : 0);
+                row.setRevenue(first ? actual.revenue() : 0.0);
+                row.setCarbonUsed(first ? actual.carbonUsed() : 0.0);
+                row.setCarbonSaved(first ? actual.carbonSaved() : 0.0);
+                row.setUserCount(first ? actual.users() : 0);
+                row.setProductCount(first ? actual.products() : 0);
+            }
+            totalsRepository.saveAll(rows);
+            return new Reconciliation(recorded, actual, recorded.differsFrom(actual));
+        });
+
+        if (result.drifted()) {
+            drifts.increment();
+            log.warn("Platform totals drifted: recorded {} but source tables give {}", result.recorded(), result.actual());
+        } else {
+            log.info("Platform totals reconciled, no drift: {}", result.actual());
+        }
+        return result;
+    }
+
+    private void seedSlots() {
+        List<Object[]> args = new ArrayList<>(slots);
+        for (int s = 0; s < slots; s++) args.add(new Object[] {s});
+        jdbcTemplate.batchUpdate(SEED_SLOT, args);
+    }
+
+    private Totals computeFromSource() {
+        Totals orders = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*), COALESCE(SUM(total_price), 0), COALESCE(SUM(carbon_used), 0), "
+                        + "COALESCE(SUM(carbon_saved), 0) FROM orders",
+                (rs, n) -> new Totals(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4), 0, 0));
+        Long users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        Long products = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+        return new Totals(orders.orders(), orders.revenue(), orders.carbonUsed(), orders.carbonSaved(),
+                users != null ? users : 0, products != null ? products : 0);
+    }
+
+    private int slot() {
+        return slots == 1 ? 0 : ThreadLocalRandom.current().nextInt(slots);
+    }
+
+    private static Totals sum(List<PlatformTotals> rows) {
+        long orders = 0, users = 0, products = 0;
+        double revenue = 0.0, used = 0.0, saved = 0.0;
+        for (PlatformTotals row : rows) {
+            orders += row.getOrderCount();
+            revenue += row.getRevenue();
+            used += row.getCarbonUsed();
+            saved += row.getCarbonSaved();
+            users += row.getUserCount();
+            products += row.getProductCount();
+        }
+        return new Totals(orders, revenue, used, saved, users, products);
+    }
+
+    public record Totals(long orders, double revenue, double carbonUsed, double carbonSaved,
+                         long users, long products) {
+
+        boolean differsFrom(Totals o) {
+            return orders != o.orders || users != o.users || products != o.products
+                    || Math.abs(revenue - o.revenue) > MONEY_TOLERANCE
+                    || Math.abs(carbonUsed - o.carbonUsed) > MONEY_TOLERANCE
+                    || Math.abs(carbonSaved - o.carbonSaved) > MONEY_TOLERANCE;
+        }
+    }
+
+    public record Reconciliation(Totals recorded, Totals actual, boolean drifted) {}
+}
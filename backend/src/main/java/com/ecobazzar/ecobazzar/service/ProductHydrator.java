@@ -0,0 +1,41 @@
+package com.ecobazzar.ecobazzar.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.ecobazzar.ecobazzar.model.CartItem;
+import com.ecobazzar.ecobazzar.model.Product;
+import com.ecobazzar.ecobazzar.repository.ProductRepository;
+
+/**
+ * Loads every product referenced by a cart with a single IN query, so pricing, carbon totals
+ * and the swap suggestion share one map instead of calling findById per line.
+ */
+@Component
+public class ProductHydrator {
+
+    private final ProductRepository productRepository;
+
+    public ProductHydrator(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    public Map<Long, Product> forCart(Collection<CartItem> items) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (CartItem item : items) {
+            if (item.getProductId() != null) ids.add(item.getProductId());
+        }
+        if (ids.isEmpty()) return Map.of();
+
+        Map<Long, Product> products = new HashMap<>(ids.size() * 2);
+        for (Product p : productRepository.findAllById(ids)) {
+            products.put(p.getId(), p);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,211 @@
+package com.ecobazzar.ecobazzar.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import com.ecobazzar.ecobazzar.dto.ProductView;
+import com.ecobazzar.ecobazzar.model.Product;
+import com.ecobazzar.ecobazzar.repository.ProductRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory inverted index over product name and details, ranked with BM25.
+ * Name terms count twice so a match in the name beats the same match in the description.
+ * Kept current by {@link ProductService} on every product write, like {@link EcoEquivalenceIndex}.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 2;
+
+    private static final Pattern SPLIT = Pattern.compile("[^a-z0-9]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "the", "of", "for", "with", "in", "on", "to", "by", "or", "is");
+
+    private final ProductRepository productRepository;
+
+    // guarded by lock
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private long totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docs.clear();
+            totalLength = 0;
+            for (Product p : products) {
+                add(p);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onProductSaved(Product product) {
+        if (product == null || product.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onProductDeleted(Long productId) {
+        if (productId == null) return;
+        lock.writeLock().lock();
+        try {
+            remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Best {@code limit} matches for {@code query} that pass {@code filter}, highest score first, ties by id.
+     * A query without searchable terms returns the filtered products in id order.
+     */
+    public List<ProductView> search(String query, Filter filter, int limit) {
+        if (limit <= 0) return List.of();
+        Map<String, Integer> terms = termFrequencies(query, null);
+
+        lock.readLock().lock();
+        try {
+            if (terms.isEmpty()) {
+                return docs.values().stream()
+                        .map(Doc::view)
+                        .filter(filter::accepts)
+                        .sorted(Comparator.comparing(ProductView::id))
+                        .limit(limit)
+                        .toList();
+            }
+
+            int n = docs.size();
+            double avgLength = n == 0 ? 0.0 : (double) totalLength / n;
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : terms.keySet()) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting == null) continue;
+                double idf = Math.log(1.0 + (n - posting.size() + 0.5) / (posting.size() + 0.5));
+                for (Map.Entry<Long, Integer> e : posting.entrySet()) {
+                    Doc doc = docs.get(e.getKey());
+                    if (!filter.accepts(doc.view())) continue;
+                    double tf = e.getValue();
+                    double norm = K1 * (1 - B + B * doc.length() / avgLength);
+                    scores.merge(e.getKey(), idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+                }
+            }
+
+            Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                    .reversed()
+                    .thenComparing(Map.Entry.comparingByKey());
+            // bounded heap holding the current top "limit", worst on top
+            PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(limit + 1, ranking.reversed());
+            for (Map.Entry<Long, Double> e : scores.entrySet()) {
+                top.offer(e);
+                if (top.size() > limit) top.poll();
+            }
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(top);
+            ranked.sort(ranking);
+            return ranked.stream().map(e -> docs.get(e.getKey()).view()).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // caller holds the write lock
+    private void add(Product p) {
+        Map<String, Integer> tf = termFrequencies(p.getName(), p.getDetails());
+        int length = tf.values().stream().mapToInt(Integer::intValue).sum();
+        docs.put(p.getId(), new Doc(ProductView.of(p), tf.keySet(), length));
+        totalLength += length;
+        tf.forEach((term, count) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(p.getId(), count));
+    }
+
+    // caller holds the write lock
+    private void remove(Long id) {
+        Doc old = docs.remove(id);
+        if (old == null) return;
+        totalLength -= old.length();
+        for (String term : old.terms()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) postings.remove(term);
+            }
+        }
+    }
+
+    private static Map<String, Integer> termFrequencies(String name, String details) {
+        Map<String, Integer> tf = new HashMap<>();
+        for (String token : tokenize(name)) tf.merge(token, NAME_WEIGHT, Integer::sum);
+        for (String token : tokenize(details)) tf.merge(token, 1, Integer::sum);
+        return tf;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        List<String> tokens = new ArrayList<>();
+        for (String raw : SPLIT.split(text.toLowerCase())) {
+            if (raw.length() < 2 || STOP_WORDS.contains(raw)) continue;
+            tokens.add(stem(raw));
+        }
+        return tokens;
+    }
+
+    // plural folding only: "bottles" -> "bottle", "boxes" -> "box", "batteries" -> "battery"
+    private static String stem(String token) {
+        if (token.length() > 4 && token.endsWith("ies")) return token.substring(0, token.length() - 3) + "y";
+        if (token.length() > 4 && (token.endsWith("ches") || token.endsWith("shes")
+                || token.endsWith("sses") || token.endsWith("xes"))) {
+            return token.substring(0, token.length() - 2);
+        }
+        if (token.length() > 3 && token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+
+    private record Doc(ProductView view, Set<String> terms, int length) {}
+
+    /** Optional result filters; null bounds are open. */
+    public record Filter(Boolean ecoCertified, Double minPrice, Double maxPrice, Double minCarbon, Double maxCarbon) {
+
+        public static final Filter NONE = new Filter(null, null, null, null, null);
+        public static final Filter ECO_ONLY = new Filter(true, null, null, null, null);
+
+        boolean accepts(ProductView v) {
+            if (ecoCertified != null && v.ecoCertified() != ecoCertified) return false;
+            if ((minPrice != null || maxPrice != null) && v.price() == null) return false;
+            if (minPrice != null && v.price() < minPrice) return false;
+            if (maxPrice != null && v.price() > maxPrice) return false;
+            if ((minCarbon != null || maxCarbon != null) && v.carbonImpact() == null) return false;
+            if (minCarbon != null && v.carbonImpact() < minCarbon) return false;
+            if (maxCarbon != null && v.carbonImpact() > maxCarbon) return false;
+            return true;
+        }
+    }
+}
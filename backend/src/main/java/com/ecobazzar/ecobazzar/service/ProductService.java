@@ -1,16 +1,54 @@
 package com.ecobazzar.ecobazzar.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ecobazzar.ecobazzar.dto.ProductPage;
+import com.ecobazzar.ecobazzar.dto.ProductView;
 import com.ecobazzar.ecobazzar.model.Product;
+import com.ecobazzar.ecobazzar.repository.ProductCatalogRepository.Keyset;
+import com.ecobazzar.ecobazzar.repository.ProductCatalogRepository.SortKey;
 import com.ecobazzar.ecobazzar.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Service
 public class ProductService {
     private final ProductRepository productRepository;
+    private final EcoEquivalenceIndex ecoEquivalenceIndex;
+    private final CartTotalsTracker cartTotals;
+    private final ProductSearchIndex productSearchIndex;
+    private final ObjectMapper objectMapper;
+    private final PlatformTotalsService platformTotals;
+    private final CacheManager cacheManager;
+    private final int maxPageSize;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, EcoEquivalenceIndex ecoEquivalenceIndex,
+                          CartTotalsTracker cartTotals, ProductSearchIndex productSearchIndex,
+                          ObjectMapper objectMapper, PlatformTotalsService platformTotals,
+                          CacheManager cacheManager,
+                          @Value("${catalog.page.max-size:100}") int maxPageSize) {
         this.productRepository = productRepository;
+        this.ecoEquivalenceIndex = ecoEquivalenceIndex;
+        this.cartTotals = cartTotals;
+        this.productSearchIndex = productSearchIndex;
+        this.objectMapper = objectMapper;
+        this.platformTotals = platformTotals;
+        this.cacheManager = cacheManager;
+        this.maxPageSize = maxPageSize;
     }
 
     public Product createProduct(Product product) {
@@ -21,19 +59,60 @@ public class ProductService {
             product.setEcoRequested(false);
             product.setEcoCertified(false);
         }
-        return productRepository.save(product);
+        Product saved = afterSave(productRepository.save(product));
+        platformTotals.productAdded();
+        return saved;
     }
 
-    public List<Product> getAllProducts() { return productRepository.findAll(); }
+    public ProductPage getProductPage(String sort, String direction, int size, String cursor) {
+        SortKey key = parseSort(sort);
+        boolean ascending = !"desc".equalsIgnoreCase(direction);
+        int limit = Math.max(1, Math.min(size, maxPageSize));
 
-    public List<Product> getProductsBySellerId(Long sellerId) {
-        return productRepository.findBySeller_Id(sellerId);  // FIXED
+        // one extra row tells whether there is a next page without a COUNT query
+        List<ProductView> rows = productRepository.findPage(key, ascending, decodeCursor(cursor, key, ascending), limit + 1);
+        if (rows.size() <= limit) {
+            return new ProductPage(rows, null);
+        }
+        List<ProductView> items = rows.subList(0, limit);
+        return new ProductPage(List.copyOf(items), encodeCursor(key, ascending, items.get(limit - 1)));
     }
 
-    public List<Product> getEcoCertifiedProducts() {
-        return productRepository.findByEcoCertifiedTrue();
+    /** Writes the whole catalog as a JSON array straight from a database cursor. */
+    @Transactional(readOnly = true)
+    public void writeCatalogJson(OutputStream out) throws IOException {
+        try (Stream<ProductView> rows = productRepository.streamAll();
+             JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartArray();
+            var it = rows.iterator();
+            for (int n = 1; it.hasNext(); n++) {
+                json.writePOJO(it.next());
+                if (n % 500 == 0) json.flush();
+            }
+            json.writeEndArray();
+        }
     }
 
+    public List<ProductView> getProductsBySellerId(Long sellerId) {
+        return productRepository.findViewsBySellerId(sellerId);
+    }
+
+    // cached values are immutable views: entities would leak lazy proxies and could be mutated by callers
+    @Cacheable(cacheNames = "productLists", key = "'eco'", sync = true)
+    public List<ProductView> getEcoCertifiedProducts() {
+        return productRepository.findByEcoCertifiedTrue().stream().map(ProductView::of).toList();
+    }
+
+    @Cacheable(cacheNames = "products", key = "#id", sync = true)
+    public ProductView getProductView(Long id) {
+        return ProductView.of(getProductById(id));
+    }
+
+    public List<ProductView> searchProducts(String query, ProductSearchIndex.Filter filter, int limit) {
+        return productSearchIndex.search(query, filter, Math.max(1, Math.min(limit, maxPageSize)));
+    }
+
+    /** Uncached managed entity, for callers that modify the product. */
     public Product getProductById(Long id) {
         return productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
     }
@@ -47,17 +126,77 @@ public class ProductService {
                 product.setCarbonImpact(updateProduct.getCarbonImpact());
                 product.setImageUrl(updateProduct.getImageUrl());
                 product.setEcoRequested(updateProduct.getEcoRequested());
-                return productRepository.save(product);
+                return afterSave(productRepository.save(product));
             })
             .orElseThrow(() -> new RuntimeException("Product not found"));
     }
 
     public void deleteProductDetails(Long id) {
+        // deleteById ignores unknown ids, which must not move the product count
+        if (!productRepository.existsById(id)) return;
         productRepository.deleteById(id);
+        platformTotals.productRemoved();
+        Transactions.afterCommit(() -> {
+            ecoEquivalenceIndex.onProductDeleted(id);
+            productSearchIndex.onProductDeleted(id);
+            evictCached(id);
+        });
+        cartTotals.productChanged(id);
     }
+
     public Product saveProduct(Product p) {
-        return productRepository.save(p);
+        return afterSave(productRepository.save(p));
     }
 
-}
+    private static SortKey parseSort(String sort) {
+        if (sort == null || sort.isBlank() || sort.equalsIgnoreCase("id")) return SortKey.ID;
+        if (sort.equalsIgnoreCase("price")) return SortKey.PRICE;
+        if (sort.equalsIgnoreCase("carbonImpact")) return SortKey.CARBON_IMPACT;
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort: " + sort);
+    }
+
+    // cursor = base64url("SORT:A|D:value|~:id"), "~" standing for a null sort value
+    private static String encodeCursor(SortKey key, boolean ascending, ProductView last) {
+        Double value = switch (key) {
+            case PRICE -> last.price();
+            case CARBON_IMPACT -> last.carbonImpact();
+            case ID -> null;
+        };
+        String raw = key.name() + ":" + (ascending ? "A" : "D") + ":" + (value == null ? "~" : value) + ":" + last.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Keyset decodeCursor(String cursor, SortKey key, boolean ascending) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 4 || !parts[0].equals(key.name()) || !parts[1].equals(ascending ? "A" : "D")) {
+                throw new IllegalArgumentException();
+            }
+            Double value = parts[2].equals("~") ? null : Double.valueOf(parts[2]);
+            return new Keyset(value, Long.valueOf(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    // every product write goes through here so the in-memory indexes never drift from the table; they
+    // and the caches follow the commit, so a reader in between cannot bring back the old row for good
+    private Product afterSave(Product saved) {
+        Transactions.afterCommit(() -> {
+            ecoEquivalenceIndex.onProductSaved(saved);
+            productSearchIndex.onProductSaved(saved);
+            evictCached(saved.getId());
+        });
+        cartTotals.productChanged(saved.getId());
+        return saved;
+    }
 
+    private void evictCached(Long id) {
+        Cache products = cacheManager.getCache("products");
+        if (products != null) products.evict(id);
+        Cache lists = cacheManager.getCache("productLists");
+        if (lists != null) lists.clear();
+    }
+
+}
@@ -4,30 +4,30 @@ import java.util.*;
 import org.springframework.stereotype.Service;
 import com.ecobazzar.ecobazzar.dto.SellerReport;
 import com.ecobazzar.ecobazzar.model.Product;
-import com.ecobazzar.ecobazzar.model.User;
 import com.ecobazzar.ecobazzar.repository.OrderItemRepository;
 import com.ecobazzar.ecobazzar.repository.ProductRepository;
-import com.ecobazzar.ecobazzar.repository.UserRepository;
 
 @Service
 public class SellerReportService {
 
     private final OrderItemRepository orderItemRepository;
-    private final UserRepository userRepository;
+    private final UserIdentityCache identities;
     private final ProductRepository productRepository;
+    private final TimeSeriesService timeSeries;
 
     public SellerReportService(OrderItemRepository orderItemRepository,
-                               UserRepository userRepository,
-                               ProductRepository productRepository) {
+                               UserIdentityCache identities,
+                               ProductRepository productRepository,
+                               TimeSeriesService timeSeries) {
         this.orderItemRepository = orderItemRepository;
-        this.userRepository = userRepository;
+        this.identities = identities;
         this.productRepository = productRepository;
+        this.timeSeries = timeSeries;
     }
 
-    public SellerReport getSellerReport(String email) {
-        User seller = userRepository.findByEmail(email)
+    public SellerReport getSellerReport(Long sellerId) {
+        UserIdentityCache.UserIdentity seller = identities.byId(sellerId)
                 .orElseThrow(() -> new RuntimeException("Seller Not Found"));
-        Long sellerId = seller.getId();
         List<Product> sellerProducts = productRepository.findBySeller_Id(sellerId);  // FIXED
         long totalProducts = sellerProducts.size();
         long totalEcoCertified = sellerProducts.stream()
@@ -39,7 +39,7 @@ public class SellerReportService {
         String badge = getSellerBadge(totalRevenue, totalEcoCertified);
         return new SellerReport(
                 sellerId,
-                seller.getName(),
+                seller.name(),
                 totalProducts,
                 totalEcoCertified,
                 totalOrders,
@@ -48,38 +48,20 @@ public class SellerReportService {
         );
     }
 
-    public List<Map<String, Object>> getSellerSales(String email, int days) {
-        User seller = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Seller Not Found"));
-        Long sellerId = seller.getId();
+    // the last "days" days, bounded like any other series
+    public List<Map<String, Object>> getSellerSales(Long sellerId, int days) {
 
         java.time.LocalDate today = java.time.LocalDate.now();
-        java.time.LocalDate sinceLocal = today.minusDays(days - 1);
-        java.sql.Date sinceDate = java.sql.Date.valueOf(sinceLocal);
-
-        List<Object[]> rows = orderItemRepository.getDailyRevenueBySellerSince(sellerId, sinceDate);
-
-        Map<String, Double> revMap = new HashMap<>();
-        if (rows != null) {
-            for (Object[] r : rows) {
-                String day;
-                if (r[0] instanceof java.sql.Date) {
-                    day = ((java.sql.Date) r[0]).toLocalDate().toString();
-                } else {
-                    day = String.valueOf(r[0]).substring(0, 10);
-                }
-                Double revenue = r[1] == null ? 0.0 : ((Number) r[1]).doubleValue();
-                revMap.put(day, revenue);
-            }
-        }
+        TimeSeriesService.Series series = timeSeries.query(TimeSeriesService.Scope.SELLER, sellerId,
+                TimeSeriesService.Bucket.DAY, today.minusDays(days - 1L).atStartOfDay(), today.plusDays(1).atStartOfDay(),
+                List.of(TimeSeriesService.Metric.REVENUE));
+        double[] revenue = (double[]) series.values().get(TimeSeriesService.Metric.REVENUE.key());
 
         List<Map<String, Object>> out = new ArrayList<>();
-        for (int i = days - 1; i >= 0; i--) {
-            java.time.LocalDate d = today.minusDays(i);
-            String dayStr = d.toString(); // yyyy-MM-dd
+        for (int i = 0; i < series.starts().size(); i++) {
             Map<String, Object> m = new HashMap<>();
-            m.put("day", dayStr);
-            m.put("revenue", revMap.getOrDefault(dayStr, 0.0));
+            m.put("day", series.starts().get(i).toLocalDate().toString()); // yyyy-MM-dd
+            m.put("revenue", revenue[i]);
             out.add(m);
         }
 
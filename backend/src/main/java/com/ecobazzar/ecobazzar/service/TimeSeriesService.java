@@ -0,0 +1,223 @@
+package com.ecobazzar.ecobazzar.service;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Bucketed order metrics over a [from, to) range for one user, one seller or the whole platform.
+ *
+ * Every query is a single SQL round trip: day, week and month buckets read the daily rollups
+ * (see {@link DailyRollups}) or the orders grouped by date, hour buckets group orders by
+ * {@code created_at}. Empty buckets are filled with zeros and the result is returned as one array
+ * per metric. Ranges are capped at {@code reports.series.max-buckets} buckets.
+ */
+@Service
+public class TimeSeriesService {
+
+    public enum Scope { USER, SELLER, PLATFORM }
+
+    public enum Bucket {
+        HOUR, DAY, WEEK, MONTH;
+
+        LocalDateTime floor(LocalDateTime t) {
+            return switch (this) {
+                case HOUR -> t.truncatedTo(ChronoUnit.HOURS);
+                case DAY -> t.truncatedTo(ChronoUnit.DAYS);
+                case WEEK -> t.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+                case MONTH -> t.toLocalDate().withDayOfMonth(1).atStartOfDay();
+            };
+        }
+
+        LocalDateTime plus(LocalDateTime start, long n) {
+            return switch (this) {
+                case HOUR -> start.plusHours(n);
+                case DAY -> start.plusDays(n);
+                case WEEK -> start.plusWeeks(n);
+                case MONTH -> start.plusMonths(n);
+            };
+        }
+    }
+
+    public enum Metric {
+        ORDERS("orders", true), REVENUE("revenue", false),
+        CARBON_USED("carbonUsed", false), CARBON_SAVED("carbonSaved", false);
+
+        private final String key;
+        private final boolean count;
+
+        Metric(String key, boolean count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        public String key() { return key; }
+    }
+
+    /** Bucket starts plus one array per requested metric, index-aligned with {@code starts}. */
+    public record Series(String bucket, LocalDateTime from, LocalDateTime to,
+                         List<LocalDateTime> starts, Map<String, Object> values) {}
+
+    // sellers have no carbon figures in their rollup
+    private static final Set<Metric> SELLER_METRICS = EnumSet.of(Metric.ORDERS, Metric.REVENUE);
+
+    // every source selects: point in time, order count, revenue, carbon used, carbon saved
+    private static final String USER_DAYS = "SELECT order_day, order_count, spent, carbon_used, carbon_saved "
+            + "FROM user_daily_totals WHERE user_id = ? AND order_day >= ? AND order_day < ?";
+    private static final String SELLER_DAYS = "SELECT order_day, order_count, revenue, 0, 0 "
+            + "FROM seller_daily_totals WHERE seller_id = ? AND order_day >= ? AND order_day < ?";
+    private static final String PLATFORM_DAYS = "SELECT order_date, COUNT(*), COALESCE(SUM(total_price), 0), "
+            + "COALESCE(SUM(carbon_used), 0), COALESCE(SUM(carbon_saved), 0) "
+            + "FROM orders WHERE order_date >= ? AND order_date < ? GROUP BY order_date";
+    private static final String HOUR_KEY = "EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at), "
+            + "EXTRACT(DAY FROM created_at), EXTRACT(HOUR FROM created_at)";
+    private static final String HOURS = "SELECT " + HOUR_KEY + ", COUNT(*), COALESCE(SUM(total_price), 0), "
+            + "COALESCE(SUM(carbon_used), 0), COALESCE(SUM(carbon_saved), 0) FROM orders "
+            + "WHERE %s created_at >= ? AND created_at < ? GROUP BY " + HOUR_KEY;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxBuckets;
+
+    public TimeSeriesService(JdbcTemplate jdbcTemplate,
+                             @Value("${reports.series.max-buckets:400}") int maxBuckets) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxBuckets = maxBuckets;
+    }
+
+    /**
+     * Request-parameter entry point. {@code from} and {@code to} take ISO dates or date-times and
+     * default to the seven buckets up to now; {@code metrics} is a comma-separated list of metric keys.
+     */
+    public Series query(Scope scope, Long ownerId, String bucket, String from, String to, String metrics) {
+        Bucket b = parseBucket(bucket);
+        LocalDateTime end = to != null ? parseTime(to, "to") : b.plus(b.floor(LocalDateTime.now()), 1);
+        LocalDateTime start = from != null ? parseTime(from, "from") : b.plus(b.floor(end), -7);
+        return query(scope, ownerId, b, start, end, parseMetrics(scope, metrics));
+    }
+
+    public Series query(Scope scope, Long ownerId, Bucket bucket, LocalDateTime from, LocalDateTime to,
+                        List<Metric> metrics) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+        if (scope == Scope.SELLER && bucket == Bucket.HOUR) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Seller series start at day buckets");
+        }
+        if (scope == Scope.SELLER && !SELLER_METRICS.containsAll(metrics)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Seller series support orders and revenue only");
+        }
+
+        LocalDateTime start = bucket.floor(from);
+        LocalDateTime end = bucket.floor(to).equals(to) ? to : bucket.plus(bucket.floor(to), 1);
+        List<LocalDateTime> starts = new ArrayList<>();
+        Map<LocalDateTime, Integer> index = new HashMap<>();
+        for (LocalDateTime t = start; t.isBefore(end); t = bucket.plus(t, 1)) {
+            if (starts.size() == maxBuckets) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Range spans more than " + maxBuckets + " " + bucket.name().toLowerCase(Locale.ROOT) + " buckets");
+            }
+            index.put(t, starts.size());
+            starts.add(t);
+        }
+
+        double[][] columns = new double[Metric.values().length][starts.size()];
+        boolean hourly = bucket == Bucket.HOUR;
+        jdbcTemplate.query(sql(scope, hourly), rs -> {
+            LocalDateTime point = hourly ? hourOf(rs) : rs.getDate(1).toLocalDate().atStartOfDay();
+            Integer i = index.get(bucket.floor(point));
+            if (i == null) return;
+            int first = hourly ? 5 : 2;
+            for (Metric m : Metric.values()) {
+                columns[m.ordinal()][i] += rs.getDouble(first + m.ordinal());
+            }
+        }, args(scope, ownerId, hourly, start, end));
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Metric m : metrics) {
+            double[] column = columns[m.ordinal()];
+            if (m.count) {
+                long[] counts = new long[column.length];
+                for (int i = 0; i < column.length; i++) counts[i] = (long) column[i];
+                values.put(m.key, counts);
+            } else {
+                values.put(m.key, column);
+            }
+        }
+        return new Series(bucket.name().toLowerCase(Locale.ROOT), start, end, starts, values);
+    }
+
+    private static String sql(Scope scope, boolean hourly) {
+        if (hourly) return String.format(HOURS, scope == Scope.USER ? "user_id = ? AND" : "");
+        return switch (scope) {
+            case USER -> USER_DAYS;
+            case SELLER -> SELLER_DAYS;
+            case PLATFORM -> PLATFORM_DAYS;
+        };
+    }
+
+    private static Object[] args(Scope scope, Long ownerId, boolean hourly, LocalDateTime start, LocalDateTime end) {
+        Object lo = hourly ? Timestamp.valueOf(start) : Date.valueOf(start.toLocalDate());
+        Object hi = hourly ? Timestamp.valueOf(end) : Date.valueOf(end.toLocalDate());
+        return scope == Scope.PLATFORM ? new Object[]{lo, hi} : new Object[]{ownerId, lo, hi};
+    }
+
+    private static LocalDateTime hourOf(ResultSet rs) throws SQLException {
+        return LocalDateTime.of(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), 0);
+    }
+
+    private static Bucket parseBucket(String bucket) {
+        if (bucket == null || bucket.isBlank()) return Bucket.DAY;
+        try {
+            return Bucket.valueOf(bucket.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported bucket: " + bucket);
+        }
+    }
+
+    private static LocalDateTime parseTime(String value, String name) {
+        try {
+            return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + name + ": " + value);
+        }
+    }
+
+    private static List<Metric> parseMetrics(Scope scope, String metrics) {
+        if (metrics == null || metrics.isBlank()) {
+            return scope == Scope.SELLER ? List.copyOf(SELLER_METRICS) : List.of(Metric.values());
+        }
+        List<Metric> out = new ArrayList<>();
+        for (String key : metrics.split(",")) {
+            Metric match = null;
+            for (Metric m : Metric.values()) {
+                if (m.key.equalsIgnoreCase(key.trim())) match = m;
+            }
+            if (match == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported metric: " + key.trim());
+            }
+            if (!out.contains(match)) out.add(match);
+        }
+        return out;
+    }
+}
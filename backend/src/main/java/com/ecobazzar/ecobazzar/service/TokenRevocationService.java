@@ -0,0 +1,152 @@
+package com.ecobazzar.ecobazzar.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.ecobazzar.ecobazzar.model.RefreshTokenFamily;
+import com.ecobazzar.ecobazzar.model.RevokedToken;
+import com.ecobazzar.ecobazzar.repository.RefreshTokenFamilyRepository;
+import com.ecobazzar.ecobazzar.repository.RevokedTokenRepository;
+import com.ecobazzar.ecobazzar.security.TokenDenyList;
+import com.ecobazzar.ecobazzar.util.JwtUtil;
+
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Persists revocations in {@code revoked_tokens} and mirrors them into the in-memory
+ * {@link TokenDenyList} the JWT filter checks. The list is rebuilt from the table at startup and
+ * topped up periodically with rows written by other instances; expired rows are purged on the same tick.
+ * A row counts as expired only once the parser's clock skew has passed as well.
+ *
+ * Refresh tokens are not put on the list: each login starts a family in {@code refresh_token_families}
+ * whose generation moves on with every refresh, so only the newest token of a session is accepted.
+ * The deny list therefore holds short-lived access tokens only.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final RefreshTokenFamilyRepository familyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TokenDenyList denyList;
+    private final long refreshExpirationMs;
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  RefreshTokenFamilyRepository familyRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  TokenDenyList denyList,
+                                  @Value("${jwt.refresh-expiration-ms:1209600000}") long refreshExpirationMs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.familyRepository = familyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.denyList = denyList;
+        this.refreshExpirationMs = refreshExpirationMs;
+    }
+
+    /** The generation of a refresh token family that a token was issued for. */
+    public record RefreshFamily(UUID id, int generation) {}
+
+    @PostConstruct
+    public void rebuild() {
+        Instant now = Instant.now();
+        denyList.clear();
+        int[] count = {0};
+        // row by row: the table can be large right after a wave of logouts
+        jdbcTemplate.query("SELECT jti, expires_at FROM revoked_tokens WHERE expires_at > ?", rs -> {
+            denyList.add(UUID.fromString(rs.getString(1)), rs.getTimestamp(2).toInstant());
+            count[0]++;
+        }, Timestamp.from(usableAfter(now)));
+        lastSync = now;
+        log.info("Token deny list loaded with {} revoked ids", count[0]);
+    }
+
+    /**
+     * Revokes a verified token until it expires. Returns false if it was already revoked, here or
+     * on another instance.
+     */
+    public boolean revoke(Claims claims) {
+        UUID jti = JwtUtil.tokenId(claims);
+        if (jti == null || claims.getExpiration() == null) return false;
+        Instant expiresAt = claims.getExpiration().toInstant();
+        if (!denyList.add(jti, expiresAt)) return false;
+        try {
+            revokedTokenRepository.insert(jti.toString(), expiresAt, Instant.now());
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+        return true;
+    }
+
+    public boolean isRevoked(Claims claims) {
+        UUID jti = JwtUtil.tokenId(claims);
+        return jti != null && claims.getExpiration() != null
+                && denyList.contains(jti, claims.getExpiration().toInstant());
+    }
+
+    public RefreshFamily startFamily(Long userId) {
+        UUID id = UUID.randomUUID();
+        familyRepository.save(new RefreshTokenFamily(id.toString(), userId, 0, familyExpiry()));
+        return new RefreshFamily(id, 0);
+    }
+
+    /**
+     * Moves the family on to the next generation if {@code presented} is its current one. Anything
+     * else means an older token of the session was replayed, so the whole family is ended and empty
+     * is returned; the holder of the newest token has to log in again as well.
+     */
+    public Optional<RefreshFamily> rotate(RefreshFamily presented) {
+        String id = presented.id().toString();
+        if (familyRepository.advance(id, presented.generation(), familyExpiry()) == 1) {
+            return Optional.of(new RefreshFamily(presented.id(), presented.generation() + 1));
+        }
+        familyRepository.end(id);
+        return Optional.empty();
+    }
+
+    /** Ends the session the family belongs to; false if it had already ended. */
+    public boolean endFamily(UUID id) {
+        return familyRepository.end(id.toString()) > 0;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:30000}")
+    public void syncAndPurge() {
+        Instant now = Instant.now();
+        // overlap the window a little so rows committed just after the last tick are not missed
+        Instant since = lastSync.minusSeconds(10);
+        try {
+            for (RevokedToken t : revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(since, usableAfter(now))) {
+                denyList.add(UUID.fromString(t.getJti()), t.getExpiresAt());
+            }
+            lastSync = now;
+            denyList.purgeExpired();
+            revokedTokenRepository.deleteExpired(usableAfter(now));
+            familyRepository.deleteExpired(usableAfter(now));
+        } catch (RuntimeException e) {
+            log.warn("Revoked token sync failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    // the newest token of a family expires this long after it was issued, and the row with it
+    private Instant familyExpiry() {
+        return Instant.now().plusMillis(refreshExpirationMs);
+    }
+
+    // tokens that expired after this instant still pass the parser's clock skew
+    private static Instant usableAfter(Instant now) {
+        return now.minusSeconds(JwtUtil.CLOCK_SKEW_SECONDS);
+    }
+}
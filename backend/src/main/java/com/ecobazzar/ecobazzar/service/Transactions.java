@@ -0,0 +1,24 @@
+package com.ecobazzar.ecobazzar.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// transaction hooks shared by the in-memory caches and trackers of this package
+final class Transactions {
+
+    private Transactions() {}
+
+    /** Runs {@code action} once the current transaction commits, or right away outside one. */
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.ecobazzar.ecobazzar.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ecobazzar.ecobazzar.model.User;
+import com.ecobazzar.ecobazzar.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Immutable user snapshots by id, plus an email → id index, so the hot lookups (login, report
+ * headers, role checks) do not query {@code users} every time.
+ *
+ * Anything that changes a user's role, flags or password must call {@link #evict(Long)}; the
+ * eviction runs after commit. Loads go through the cache's per-key compute, so an eviction that
+ * overlaps a load waits for it and then drops what it loaded instead of leaving a stale row behind.
+ * Emails never change here, so the email index only ever maps to the right id.
+ */
+@Component
+public class UserIdentityCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, UserIdentity> byId;
+    private final Cache<String, Long> idByEmail;
+
+    public UserIdentityCache(UserRepository userRepository,
+                             @Value("${users.cache.max-size:10000}") long maxSize,
+                             @Value("${users.cache.ttl-seconds:600}") long ttlSeconds,
+                             MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.idByEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "userIdentities");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByEmail, "userIdsByEmail");
+    }
+
+    public Optional<UserIdentity> byId(Long id) {
+        if (id == null) return Optional.empty();
+        return Optional.ofNullable(byId.get(id, k -> userRepository.findById(k).map(UserIdentity::of).orElse(null)));
+    }
+
+    public Optional<UserIdentity> byEmail(String email) {
+        if (email == null) return Optional.empty();
+        Long id = idByEmail.get(email, k -> userRepository.findIdByEmail(k).orElse(null));
+        return byId(id);
+    }
+
+    /** Drops the user's snapshot after the current transaction commits. */
+    public void evict(Long userId) {
+        if (userId == null) return;
+        Transactions.afterCommit(() -> byId.invalidate(userId));
+    }
+
+    public record UserIdentity(Long id, String name, String email, String role, Integer ecoScore,
+                               boolean sellerRequestPending, String passwordHash) {
+
+        static UserIdentity of(User u) {
+            return new UserIdentity(u.getId(), u.getName(), u.getEmail(), u.getRole(), u.getEcoScore(),
+                    u.isSellerRequestPending(), u.getPassword());
+        }
+
+        // snapshots end up in logs and debuggers; keep the email and hash out of them
+        @Override
+        public String toString() {
+            return "UserIdentity[id=" + id + ", role=" + role + ", sellerRequestPending=" + sellerRequestPending + "]";
+        }
+    }
+}
@@ -1,52 +1,72 @@
 package com.ecobazzar.ecobazzar.service;
 
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
 import org.springframework.stereotype.Service;
 
 import com.ecobazzar.ecobazzar.dto.UserReport;
-import com.ecobazzar.ecobazzar.repository.OrderRepository;
-import com.ecobazzar.ecobazzar.repository.UserRepository;
-import com.ecobazzar.ecobazzar.model.User;
 
 @Service
 public class UserReportService {
 
-    private final UserRepository userRepository;
-    private final OrderRepository orderRepository;
+    private final UserIdentityCache identities;
+    private final UserSummaryCache userSummaries;
+    private final TimeSeriesService timeSeries;
 
-    public UserReportService(UserRepository userRepository, OrderRepository orderRepository) {
-        this.orderRepository = orderRepository;
-        this.userRepository = userRepository;
+    public UserReportService(UserIdentityCache identities, UserSummaryCache userSummaries,
+                             TimeSeriesService timeSeries) {
+        this.userSummaries = userSummaries;
+        this.identities = identities;
+        this.timeSeries = timeSeries;
     }
 
     public UserReport getUserReport(Long userId) {
 
-        User user = userRepository.findById(userId)
+        UserIdentityCache.UserIdentity user = identities.byId(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Long totalPurchase = (long) orderRepository.findByUserId(userId).size();
-
-        Double totalSpent = orderRepository.getTotalSpendByUser(userId);
-        if (totalSpent == null) totalSpent = 0.0;
-
-        Double totalUsed = orderRepository.getTotalCarbonUsed(userId);
-        if (totalUsed == null) totalUsed = 0.0;
-
-        Double totalSaved = orderRepository.getTotalCarbonSaved(userId);
-        if (totalSaved == null) totalSaved = 0.0;
+        // cached lifetime totals: no query at all until the user's next checkout
+        UserSummaryCache.Summary totals = userSummaries.get(userId);
 
-        String badge = getEcoBadge(totalSaved);
+        String badge = getEcoBadge(totals.carbonSaved());
 
         return new UserReport(
-                user.getId(),
-                user.getName(),
-                totalPurchase,
-                totalSpent,
-                totalUsed,
-                totalSaved,
+                user.id(),
+                user.name(),
+                totals.orders(),
+                totals.spent(),
+                totals.carbonUsed(),
+                totals.carbonSaved(),
                 badge
         );
     }
 
+    // last seven days, shaped for the dashboard chart
+    public List<Map<String, Object>> getWeeklyCarbon(Long userId) {
+        LocalDate today = LocalDate.now();
+        TimeSeriesService.Series series = timeSeries.query(TimeSeriesService.Scope.USER, userId,
+                TimeSeriesService.Bucket.DAY, today.minusDays(6).atStartOfDay(), today.plusDays(1).atStartOfDay(),
+                List.of(TimeSeriesService.Metric.CARBON_SAVED, TimeSeriesService.Metric.CARBON_USED));
+        double[] saved = (double[]) series.values().get(TimeSeriesService.Metric.CARBON_SAVED.key());
+        double[] used = (double[]) series.values().get(TimeSeriesService.Metric.CARBON_USED.key());
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int i = 0; i < series.starts().size(); i++) {
+            Map<String, Object> day = new HashMap<>();
+            day.put("day", series.starts().get(i).getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.ENGLISH));
+            day.put("saved", saved[i]);
+            day.put("used", used[i]);
+            result.add(day);
+        }
+        return result;
+    }
+
     private String getEcoBadge(Double saved) {
         if (saved > 500) return "🌎 Eco Legend";
         if (saved > 200) return "🌿 Green Hero";
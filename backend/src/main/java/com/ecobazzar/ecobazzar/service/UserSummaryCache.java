@@ -0,0 +1,58 @@
+package com.ecobazzar.ecobazzar.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Per-user order totals for the dashboard, read from the one {@code user_order_totals} row that
+ * checkout maintains and cached until the user's next checkout commits.
+ */
+@Component
+public class UserSummaryCache {
+
+    private static final Summary EMPTY = new Summary(0, 0.0, 0.0, 0.0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, Summary> summaries;
+
+    public UserSummaryCache(JdbcTemplate jdbcTemplate,
+                            @Value("${reports.user-summary.max-size:10000}") long maxSize,
+                            @Value("${reports.user-summary.ttl-seconds:600}") long ttlSeconds,
+                            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.summaries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, summaries, "userSummaries");
+    }
+
+    public Summary get(Long userId) {
+        return summaries.get(userId, id -> jdbcTemplate.query(
+                "SELECT order_count, spent, carbon_used, carbon_saved FROM user_order_totals WHERE user_id = ?",
+                rs -> rs.next() ? new Summary(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4)) : EMPTY,
+                id));
+    }
+
+    // checkout calls this; the next read after the order commits reloads the row
+    public void evict(Long userId) {
+        if (userId == null) return;
+        Transactions.afterCommit(() -> summaries.invalidate(userId));
+    }
+
+    public void evictAll() {
+        summaries.invalidateAll();
+    }
+
+    public record Summary(long orders, double spent, double carbonUsed, double carbonSaved) {}
+}
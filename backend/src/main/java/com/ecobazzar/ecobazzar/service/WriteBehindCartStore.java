@@ -0,0 +1,438 @@
+package com.ecobazzar.ecobazzar.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecobazzar.ecobazzar.model.CartItem;
+import com.ecobazzar.ecobazzar.repository.CartRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps carts in memory and writes them back to {@code cart_item} in coalesced JDBC batches.
+ * A cart is read from the table on first use and dropped again once it is idle or the store is
+ * over capacity, after its pending changes have been written.
+ *
+ * Single instance only: the store assumes it is the only writer of {@code cart_item} and hands out
+ * row ids from {@code MAX(id)}, so two instances would collide and each would keep its own copy of
+ * a cart.
+ *
+ * Lock order is always {@code writeLock} → cart monitor → map bin; no database call runs under a
+ * cart monitor or inside a map operation. {@code writeLock} only serializes the write-backs, which
+ * open their transaction before taking any line; request threads, which may already hold a
+ * connection, never wait for it, and checkout waits only for a write-back of its own cart that
+ * already has its connection.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store.mode", havingValue = "write-behind")
+public class WriteBehindCartStore implements CartStore {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO cart_item (id, user_id, product_id, quantity) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM cart_item WHERE id = ?";
+
+    private final CartRepository cartRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTx;
+    private final int maxUsers;
+    private final long idleTimeoutMs;
+
+    private final ConcurrentHashMap<Long, UserCart> carts = new ConcurrentHashMap<>();
+    // the store is the only writer of cart_item in this mode (see above), so it hands out the ids itself
+    private final AtomicLong ids = new AtomicLong();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public WriteBehindCartStore(CartRepository cartRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${cart.store.max-users:10000}") int maxUsers,
+                                @Value("${cart.store.idle-timeout-ms:900000}") long idleTimeoutMs) {
+        this.cartRepository = cartRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.writeTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxUsers = maxUsers;
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    @PostConstruct
+    public void init() {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cart_item", Long.class);
+        ids.set(max != null ? max : 0L);
+    }
+
+    @Override
+    public List<CartItem> findByUserId(Long userId) {
+        return withCart(userId, UserCart::snapshot);
+    }
+
+    @Override
+    public Optional<CartItem> findById(Long userId, Long cartItemId) {
+        return withCart(userId, cart -> Optional.ofNullable(cart.lines.get(cartItemId)).map(UserCart::copy));
+    }
+
+    @Override
+    public CartItem addQuantity(Long userId, Long productId, int quantity) {
+        return withCart(userId, cart -> {
+            for (CartItem line : cart.lines.values()) {
+                if (line.getProductId().equals(productId)) {
+                    line.setQuantity(line.getQuantity() + quantity);
+                    cart.dirty.add(line.getId());
+                    return UserCart.copy(line);
+                }
+            }
+            CartItem line = new CartItem(ids.incrementAndGet(), userId, productId, quantity);
+            cart.lines.put(line.getId(), line);
+            cart.dirty.add(line.getId());
+            return UserCart.copy(line);
+        });
+    }
+
+    @Override
+    public void delete(Long userId, Long cartItemId) {
+        withCart(userId, cart -> {
+            if (cart.lines.remove(cartItemId) != null) {
+                cart.dirty.remove(cartItemId);
+                cart.deleted.add(cartItemId);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void flush(Long userId) {
+        writeLock.lock();
+        try {
+            UserCart cart = carts.get(userId);
+            if (cart != null) {
+                writeBack(cart);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void checkedOut(Long userId, Collection<Long> cartItemIds) {
+        withCart(userId, cart -> {
+            // wait out a write-back that has already taken these lines, so once the checkout deletes
+            // the rows nothing can write them again
+            cart.awaitWritten();
+            List<CartItem> removed = new ArrayList<>();
+            for (Long id : cartItemIds) {
+                CartItem line = cart.lines.remove(id);
+                cart.dirty.remove(id);
+                cart.deleted.remove(id);
+                if (line != null) removed.add(line);
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                cart.checkouts++;
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        checkoutFinished(cart, status == STATUS_COMMITTED ? List.of() : removed);
+                    }
+                });
+            }
+            return null;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:2000}")
+    public void flushAndSweep() {
+        writeLock.lock();
+        try {
+            writeBackAll(carts.values());
+
+            long idleBefore = System.currentTimeMillis() - idleTimeoutMs;
+            for (UserCart cart : carts.values()) {
+                if (cart.lastAccess < idleBefore) {
+                    tryEvict(cart);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeLock.lock();
+        try {
+            writeBackAll(carts.values());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private <T> T withCart(Long userId, Function<UserCart, T> action) {
+        while (true) {
+            UserCart cart = carts.get(userId);
+            if (cart == null) {
+                // the placeholder claims the slot; the query runs outside any map lock
+                UserCart placeholder = new UserCart(userId);
+                cart = carts.putIfAbsent(userId, placeholder);
+                if (cart == null) {
+                    cart = placeholder;
+                    load(cart);
+                    if (carts.size() > maxUsers) {
+                        enforceCapacity();
+                    }
+                }
+            }
+            if (!cart.awaitLoaded()) continue;
+            synchronized (cart) {
+                if (!cart.evicted) {
+                    cart.lastAccess = System.currentTimeMillis();
+                    return action.apply(cart);
+                }
+            }
+        }
+    }
+
+    private void load(UserCart cart) {
+        try {
+            List<CartItem> rows = cartRepository.findByUserId(cart.userId);
+            synchronized (cart) {
+                for (CartItem row : rows) {
+                    cart.lines.put(row.getId(), UserCart.copy(row));
+                }
+            }
+            cart.ready.complete(null);
+        } catch (RuntimeException e) {
+            // waiters retry and load it themselves
+            carts.remove(cart.userId, cart);
+            cart.ready.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void checkoutFinished(UserCart cart, List<CartItem> rolledBack) {
+        synchronized (cart) {
+            cart.checkouts--;
+            // the rows are still there: put the lines back and write them again, folding in a line the
+            // user added for the same product meanwhile, whose insert cannot have passed the unique key
+            for (CartItem line : rolledBack) {
+                CartItem readded = null;
+                for (CartItem other : cart.lines.values()) {
+                    if (other.getProductId().equals(line.getProductId())) readded = other;
+                }
+                if (readded != null) {
+                    line.setQuantity(line.getQuantity() + readded.getQuantity());
+                    cart.lines.remove(readded.getId());
+                    cart.dirty.remove(readded.getId());
+                }
+                cart.lines.put(line.getId(), line);
+                cart.dirty.add(line.getId());
+            }
+        }
+    }
+
+    // drops the least recently used tenth of the carts so the scan is amortized over many inserts; the
+    // caller may hold a connection, so a running write-back is not waited for and the next insert or
+    // sweep catches up
+    private void enforceCapacity() {
+        if (!writeLock.tryLock()) return;
+        try {
+            int excess = carts.size() - maxUsers;
+            if (excess <= 0) return;
+            int target = excess + Math.max(1, maxUsers / 10);
+            carts.values().stream()
+                    .sorted(Comparator.comparingLong(c -> c.lastAccess))
+                    .limit(target)
+                    .toList()
+                    .forEach(this::tryEvict);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // caller holds writeLock; a cart that fails to write, changes meanwhile or is being checked out stays
+    private void tryEvict(UserCart cart) {
+        try {
+            writeBack(cart);
+        } catch (RuntimeException e) {
+            log.warn("Could not write back cart of user {} before eviction, will retry: {}", cart.userId, e.getMessage());
+            return;
+        }
+        synchronized (cart) {
+            if (!cart.dirty.isEmpty() || !cart.deleted.isEmpty() || cart.checkouts > 0) return;
+            cart.evicted = true;
+            carts.remove(cart.userId, cart);
+        }
+    }
+
+    // caller holds writeLock; on failure the changes are queued again and the exception rethrown
+    private void writeBack(UserCart cart) {
+        write(List.of(cart));
+    }
+
+    // caller holds writeLock; one batch per statement for all carts, and one transaction per cart
+    // if that fails, so a cart whose rows cannot be written does not hold back the others
+    private void writeBackAll(Collection<UserCart> targets) {
+        try {
+            write(targets);
+            return;
+        } catch (RuntimeException e) {
+            log.debug("Cart write-behind batch failed, writing carts one by one: {}", e.getMessage());
+        }
+        int written = 0;
+        int failed = 0;
+        RuntimeException last = null;
+        for (UserCart cart : targets) {
+            try {
+                written += write(List.of(cart));
+            } catch (RuntimeException e) {
+                failed++;
+                last = e;
+            }
+        }
+        if (last != null) {
+            log.warn("Cart write-behind flush failed for {} of {} carts, will retry: {}", failed, written + failed, last.getMessage());
+        }
+    }
+
+    private static Pending take(UserCart cart) {
+        synchronized (cart) {
+            if (cart.dirty.isEmpty() && cart.deleted.isEmpty()) return null;
+            cart.writing = true;
+            Pending pending = new Pending(cart, new HashSet<>(cart.dirty), new HashSet<>(cart.deleted), new ArrayList<>());
+            for (Long id : pending.rewrites()) {
+                CartItem line = cart.lines.get(id);
+                pending.rows().add(new Object[]{line.getId(), line.getUserId(), line.getProductId(), line.getQuantity()});
+            }
+            cart.dirty.clear();
+            cart.deleted.clear();
+            return pending;
+        }
+    }
+
+    // the lines are taken inside the transaction, once its connection is held, and released to a
+    // waiting checkout only after the commit or rollback; changed rows are deleted and re-inserted so
+    // the (user_id, product_id) key can never clash mid-batch. Returns how many carts had changes.
+    private int write(Collection<UserCart> targets) {
+        List<Pending> batch = new ArrayList<>();
+        try {
+            writeTx.executeWithoutResult(status -> {
+                List<Object[]> inserts = new ArrayList<>();
+                List<Object[]> deletes = new ArrayList<>();
+                for (UserCart cart : targets) {
+                    Pending pending = take(cart);
+                    if (pending == null) continue;
+                    batch.add(pending);
+                    inserts.addAll(pending.rows());
+                    for (Long id : pending.rewrites()) deletes.add(new Object[]{id});
+                    for (Long id : pending.deletes()) deletes.add(new Object[]{id});
+                }
+                if (!deletes.isEmpty()) jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+                if (!inserts.isEmpty()) jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            });
+        } catch (RuntimeException e) {
+            batch.forEach(WriteBehindCartStore::requeue);
+            throw e;
+        } finally {
+            batch.forEach(pending -> pending.cart().written());
+        }
+        return batch.size();
+    }
+
+    private static void requeue(Pending pending) {
+        UserCart cart = pending.cart();
+        synchronized (cart) {
+            for (Long id : pending.rewrites()) {
+                if (cart.lines.containsKey(id)) cart.dirty.add(id);
+            }
+            for (Long id : pending.deletes()) {
+                if (!cart.lines.containsKey(id)) cart.deleted.add(id);
+            }
+        }
+    }
+
+    private record Pending(UserCart cart, Set<Long> rewrites, Set<Long> deletes, List<Object[]> rows) {}
+
+    private static final class UserCart {
+        final Long userId;
+        final Map<Long, CartItem> lines = new LinkedHashMap<>();
+        final Set<Long> dirty = new HashSet<>();
+        final Set<Long> deleted = new HashSet<>();
+        final CompletableFuture<Void> ready = new CompletableFuture<>();
+        volatile long lastAccess = System.currentTimeMillis();
+        boolean evicted;
+        int checkouts;
+        // taken lines are being written; checkout waits until they are committed or queued again
+        boolean writing;
+
+        UserCart(Long userId) {
+            this.userId = userId;
+        }
+
+        // false if the load failed and the placeholder was dropped
+        boolean awaitLoaded() {
+            try {
+                ready.join();
+                return true;
+            } catch (CompletionException e) {
+                return false;
+            }
+        }
+
+        // caller holds the monitor
+        void awaitWritten() {
+            boolean interrupted = false;
+            while (writing) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+
+        synchronized void written() {
+            writing = false;
+            notifyAll();
+        }
+
+        List<CartItem> snapshot() {
+            List<CartItem> out = new ArrayList<>(lines.size());
+            for (CartItem line : lines.values()) {
+                out.add(copy(line));
+            }
+            return out;
+        }
+
+        static CartItem copy(CartItem item) {
+            return new CartItem(item.getId(), item.getUserId(), item.getProductId(), item.getQuantity());
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.ecobazzar.ecobazzar.util;
 
+import com.ecobazzar.ecobazzar.security.Role;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,31 +20,67 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
     private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+    private static final String REFRESH = "refresh";
+    /** Tokens are accepted this long past their expiry; anything tracking live tokens must add it. */
+    public static final long CLOCK_SKEW_SECONDS = 60;
 
     private final SecretKey key;
     private final long expirationMs;
+    private final long refreshExpirationMs;
+    // parsers are immutable and thread-safe, so one is enough
+    private final JwtParser parser;
+    // verified claims by token digest; an entry lives until the token's own expiry
+    private final Cache<String, Claims> verified;
+    private final Timer verifyValid;
+    private final Timer verifyRejected;
 
     public JwtUtil(@Value("${jwt.secret}") String secret,
-                   @Value("${jwt.expiration-ms}") long expirationMs) {
+                   @Value("${jwt.expiration-ms}") long expirationMs,
+                   @Value("${jwt.refresh-expiration-ms:1209600000}") long refreshExpirationMs,
+                   @Value("${jwt.cache.max-size:10000}") long cacheMaxSize,
+                   MeterRegistry meterRegistry) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expirationMs = expirationMs;
+        this.refreshExpirationMs = refreshExpirationMs;
+        this.parser = Jwts.parser()
+            .verifyWith(key)         // jjwt 0.12 style
+            .clockSkewSeconds(CLOCK_SKEW_SECONDS)    // tolerate minor skew
+            .build();
+        this.verified = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfter(new UntilTokenExpiry())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwtClaims");
+        this.verifyValid = Timer.builder("jwt.verify").tag("outcome", "valid")
+            .description("Signature check and parse of tokens not found in the claims cache")
+            .register(meterRegistry);
+        this.verifyRejected = Timer.builder("jwt.verify").tag("outcome", "rejected").register(meterRegistry);
         log.info("JWT key initialized (len={} bytes).", secret.getBytes(StandardCharsets.UTF_8).length);
     }
 
+    // every token carries a random id (jti) so it can be revoked before it expires
     public String generateToken(String email, String role, Long userId) {
         return Jwts.builder()
-            .setSubject(email)
+            .id(UUID.randomUUID().toString())
+            .subject(email)
             .claim("role", role)
+            .claim("rm", Role.maskOf(role))
             .claim("userId", userId)
-            .setIssuedAt(new Date())
-            .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
+            .issuedAt(new Date())
+            .expiration(new Date(System.currentTimeMillis() + expirationMs))
             .signWith(key)
             .compact();
     }
@@ -44,11 +88,13 @@ public class JwtUtil {
     public String generateToken(String email, Collection<String> roles, Long userId, boolean includeSingleRoleClaim) {
         var now = new Date();
         var b = Jwts.builder()
-            .setSubject(email)
+            .id(UUID.randomUUID().toString())
+            .subject(email)
             .claim("roles", roles)
+            .claim("rm", roles != null ? Role.maskOf(roles) : 0)
             .claim("userId", userId)
-            .setIssuedAt(now)
-            .setExpiration(new Date(now.getTime() + expirationMs))
+            .issuedAt(now)
+            .expiration(new Date(now.getTime() + expirationMs))
             .signWith(key);
         if (includeSingleRoleClaim && roles != null && !roles.isEmpty()) {
             b.claim("role", roles.iterator().next());
@@ -56,13 +102,78 @@ public class JwtUtil {
         return b.compact();
     }
 
+    /**
+     * Long-lived token that is only good for {@code /api/auth/refresh}; it carries no roles, only the
+     * session's refresh token family and the generation it was issued for.
+     */
+    public String generateRefreshToken(String email, Long userId, UUID family, int generation) {
+        var now = new Date();
+        return Jwts.builder()
+            .id(UUID.randomUUID().toString())
+            .subject(email)
+            .claim("userId", userId)
+            .claim("typ", REFRESH)
+            .claim("fam", family.toString())
+            .claim("gen", generation)
+            .issuedAt(now)
+            .expiration(new Date(now.getTime() + refreshExpirationMs))
+            .signWith(key)
+            .compact();
+    }
+
+    public static boolean isRefreshToken(Claims claims) {
+        return REFRESH.equals(claims.get("typ", String.class));
+    }
+
+    /** The token's jti, or null for tokens issued without one (or with a foreign format). */
+    public static UUID tokenId(Claims claims) {
+        String id = claims.getId();
+        if (id == null) return null;
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** The refresh token family, or null for refresh tokens issued before families existed. */
+    public static UUID familyId(Claims claims) {
+        String family = claims.get("fam", String.class);
+        if (family == null) return null;
+        try {
+            return UUID.fromString(family);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public static Integer generation(Claims claims) {
+        return claims.get("gen", Integer.class);
+    }
+
     public Claims getClaims(String token) {
-        return Jwts.parser()
-            .verifyWith(key)         // jjwt 0.12 style
-            .clockSkewSeconds(60)    // tolerate minor skew
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Verified claims of {@code token}, from the cache when the same token was verified before.
+     * Throws like {@link #getClaims} when the token is invalid or expired; failures are not cached.
+     */
+    public Claims verify(String token) {
+        String digest = digest(token);
+        Claims claims = verified.getIfPresent(digest);
+        if (claims != null) return claims;
+
+        long start = System.nanoTime();
+        try {
+            claims = getClaims(token);
+        } catch (RuntimeException e) {
+            verifyRejected.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        verifyValid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        verified.put(digest, claims);
+        return claims;
     }
 
     public boolean validateToken(String token) {
@@ -86,4 +197,33 @@ public class JwtUtil {
         return List.of();
     }
     public Long extractUserId(String token) { return getClaims(token).get("userId", Long.class); }
+
+    // the raw token is a bearer credential, so only its hash is kept as the key
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date exp = claims.getExpiration();
+            if (exp == null) return TimeUnit.MINUTES.toNanos(5);
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(exp.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,47 @@
+package com.ecobazzar.ecobazzar.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+
+class CorrelationIdFilterTest {
+
+    private final CorrelationIdFilter filter = new CorrelationIdFilter();
+
+    @Test
+    void asyncDispatchKeepsTheIdOfTheFirstPass() throws Exception {
+        List<String> seen = new ArrayList<>();
+        FilterChain chain = (req, res) -> seen.add(MDC.get(CorrelationIdFilter.MDC_KEY));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, response, chain);
+
+        assertThat(seen).hasSize(2).doesNotContainNull();
+        assertThat(seen.get(1)).isEqualTo(seen.get(0));
+        assertThat(response.getHeader(CorrelationIdFilter.HEADER)).isEqualTo(seen.get(0));
+        assertThat(MDC.get(CorrelationIdFilter.MDC_KEY)).isNull();
+    }
+
+    @Test
+    void usesASaneIdSentByTheCaller() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader(CorrelationIdFilter.HEADER, "edge-42");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {});
+
+        assertThat(response.getHeader(CorrelationIdFilter.HEADER)).isEqualTo("edge-42");
+    }
+}
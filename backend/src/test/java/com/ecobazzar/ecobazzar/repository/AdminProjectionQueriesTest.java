@@ -0,0 +1,67 @@
+package com.ecobazzar.ecobazzar.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import com.ecobazzar.ecobazzar.dto.PendingProductDto;
+import com.ecobazzar.ecobazzar.dto.PendingSellerDto;
+import com.ecobazzar.ecobazzar.model.AdminRequest;
+import com.ecobazzar.ecobazzar.model.Product;
+import com.ecobazzar.ecobazzar.model.User;
+
+@DataJpaTest
+class AdminProjectionQueriesTest {
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private AdminRequestRepository adminRequestRepository;
+
+    @Test
+    void pendingListsAreProjectedWithoutLoadingEntities() {
+        User seller = user("Asha", "asha@example.com", true);
+        User other = user("Ravi", "ravi@example.com", false);
+        product("Jute Bag", seller, true);
+        product("Clay Cup", seller, false);
+        product("Orphan Item", null, true);
+
+        AdminRequest request = new AdminRequest();
+        request.setUser(other);
+        adminRequestRepository.save(request);
+
+        assertThat(userRepository.findPendingSellers())
+                .containsExactly(new PendingSellerDto(seller.getId(), "Asha", "asha@example.com", 2));
+        assertThat(productRepository.findPendingProducts())
+                .extracting(PendingProductDto::name, PendingProductDto::sellerName)
+                .containsExactly(tuple("Jute Bag", "Asha"),
+                        tuple("Orphan Item", "Unknown"));
+        assertThat(adminRequestRepository.findPendingViews())
+                .singleElement()
+                .satisfies(v -> {
+                    assertThat(v.userId()).isEqualTo(other.getId());
+                    assertThat(v.userEmail()).isEqualTo("ravi@example.com");
+                });
+    }
+
+    private User user(String name, String email, boolean sellerRequestPending) {
+        User u = new User();
+        u.setName(name);
+        u.setEmail(email);
+        u.setPassword("x");
+        u.setRole("ROLE_USER");
+        u.setSellerRequestPending(sellerRequestPending);
+        return userRepository.save(u);
+    }
+
+    private void product(String name, User seller, boolean ecoRequested) {
+        Product p = new Product();
+        p.setName(name);
+        p.setPrice(2.0);
+        p.setSeller(seller);
+        p.setEcoRequested(ecoRequested);
+        productRepository.save(p);
+    }
+}
@@ -0,0 +1,88 @@
+package com.ecobazzar.ecobazzar.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import com.ecobazzar.ecobazzar.dto.ProductView;
+import com.ecobazzar.ecobazzar.model.Product;
+import com.ecobazzar.ecobazzar.repository.ProductCatalogRepository.Keyset;
+import com.ecobazzar.ecobazzar.repository.ProductCatalogRepository.SortKey;
+
+@DataJpaTest(properties = "catalog.stream.fetch-size=50")
+class ProductCatalogRepositoryTest {
+
+    @Autowired private ProductRepository productRepository;
+
+    @BeforeEach
+    void seed() {
+        double[] prices = {5.0, 2.0, 5.0, 9.0, 2.0, 7.5, 5.0, 1.0, 9.0, 3.0};
+        for (int i = 0; i < 30; i++) {
+            Product p = new Product();
+            p.setName("Product " + i);
+            // every fourth product has no price to exercise the null run
+            p.setPrice(i % 4 == 0 ? null : prices[i % prices.length]);
+            p.setCarbonImpact(i % 3 == 0 ? null : (double) (i % 5));
+            productRepository.save(p);
+        }
+        productRepository.flush();
+    }
+
+    @Test
+    void keysetPagesVisitEveryRowOnceInSortOrder() {
+        for (SortKey key : SortKey.values()) {
+            for (boolean ascending : new boolean[]{true, false}) {
+                List<ProductView> paged = pageThrough(key, ascending, 4);
+                assertThat(paged).as("%s %s", key, ascending ? "asc" : "desc")
+                        .containsExactlyElementsOf(expectedOrder(key, ascending));
+            }
+        }
+    }
+
+    @Test
+    void streamsTheWholeCatalogInIdOrder() {
+        try (Stream<ProductView> rows = productRepository.streamAll()) {
+            assertThat(rows.map(ProductView::id).toList())
+                    .hasSize(30)
+                    .isSorted();
+        }
+    }
+
+    private List<ProductView> pageThrough(SortKey key, boolean ascending, int size) {
+        List<ProductView> all = new ArrayList<>();
+        Keyset after = null;
+        while (true) {
+            List<ProductView> page = productRepository.findPage(key, ascending, after, size);
+            all.addAll(page);
+            if (page.size() < size) return all;
+            ProductView last = page.get(page.size() - 1);
+            after = new Keyset(value(key, last), last.id());
+        }
+    }
+
+    private List<ProductView> expectedOrder(SortKey key, boolean ascending) {
+        Comparator<ProductView> byValue = Comparator.comparing(v -> value(key, v),
+                Comparator.nullsFirst(Comparator.<Double>naturalOrder()));
+        Comparator<ProductView> order = byValue.thenComparing(ProductView::id);
+        return productRepository.findAll().stream()
+                .map(ProductView::of)
+                .sorted(ascending ? order : order.reversed())
+                .toList();
+    }
+
+    private static Double value(SortKey key, ProductView v) {
+        return switch (key) {
+            case PRICE -> v.price();
+            case CARBON_IMPACT -> v.carbonImpact();
+            case ID -> null;
+        };
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecobazzar.ecobazzar.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.ecobazzar.ecobazzar.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuthRateLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void emailBucketIsSharedAcrossAddressesAndCase() {
+        AuthRateLimiter limiter = new AuthRateLimiter(100, 0, 2, 0, 1000, registry);
+
+        limiter.acquire("10.0.0.1", "Anna@Example.com");
+        limiter.acquire("10.0.0.2", "anna@example.com ");
+
+        assertThatThrownBy(() -> limiter.acquire("10.0.0.3", "ANNA@example.com"))
+                .isInstanceOf(TooManyRequestsException.class);
+        limiter.acquire("10.0.0.3", "other@example.com");
+    }
+
+    @Test
+    void ipBucketLimitsManyAccountsFromOneAddress() {
+        AuthRateLimiter limiter = new AuthRateLimiter(3, 0, 100, 0, 1000, registry);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("10.0.0.1", "user" + i + "@example.com");
+        }
+
+        assertThatThrownBy(() -> limiter.acquire("10.0.0.1", "user9@example.com"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(registry.get("auth.ratelimit.rejected").tag("key", "ip").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void trackedKeysStayBounded() {
+        AuthRateLimiter limiter = new AuthRateLimiter(10, 10, 10, 10, 160, registry);
+
+        for (int i = 0; i < 5000; i++) {
+            try {
+                limiter.acquire("10.0." + (i / 256) + "." + (i % 256), null);
+            } catch (TooManyRequestsException e) {
+                // a full stripe refuses new keys until one of its buckets has refilled
+            }
+        }
+
+        assertThat(registry.get("auth.ratelimit.keys").tag("key", "ip").gauge().value()).isLessThanOrEqualTo(160.0);
+    }
+
+    @Test
+    void keyFloodDoesNotResetADepletedBucket() {
+        AuthRateLimiter limiter = new AuthRateLimiter(1_000_000, 0, 1, 0, 16, registry);
+        limiter.acquire("10.0.0.1", "victim@example.com");
+
+        for (int i = 0; i < 1000; i++) {
+            try {
+                limiter.acquire("10.0.0.1", "user" + i + "@example.com");
+            } catch (TooManyRequestsException e) {
+                // refused, the stripe is full of buckets that have not refilled
+            }
+        }
+
+        assertThatThrownBy(() -> limiter.acquire("10.0.0.1", "victim@example.com"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void aDrainedLeastRecentlyUsedBucketDoesNotBlockAFullOneBehindIt() throws InterruptedException {
+        // two buckets per stripe, three tokens each, one token back every half second
+        AuthRateLimiter limiter = new AuthRateLimiter(1_000_000, 0, 3, 120, 32, registry);
+        String[] keys = sameStripe(3);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("10.0.0.1", keys[0]);
+        }
+        limiter.acquire("10.0.0.1", keys[1]);
+
+        // the first bucket is still well short of capacity, the second has refilled
+        Thread.sleep(600);
+        limiter.acquire("10.0.0.1", keys[2]);
+
+        // and it was kept rather than reset: the one token it has got back is all it has
+        limiter.acquire("10.0.0.1", keys[0]);
+        assertThatThrownBy(() -> limiter.acquire("10.0.0.1", keys[0]))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void refilledBucketsMakeRoomForNewKeys() {
+        AuthRateLimiter limiter = new AuthRateLimiter(1_000_000, 0, 1, 6e11, 16, registry);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.acquire("10.0.0.1", "user" + i + "@example.com");
+        }
+
+        assertThat(registry.get("auth.ratelimit.keys").tag("key", "email").gauge().value()).isLessThanOrEqualTo(16.0);
+    }
+
+    // emails that land in the same lock stripe
+    private static String[] sameStripe(int n) {
+        String[] out = new String[n];
+        int found = 0;
+        for (int i = 0; found < n; i++) {
+            String email = "user" + i + "@example.com";
+            if ((email.hashCode() & 0x7fffffff) % 16 == ("user0@example.com".hashCode() & 0x7fffffff) % 16) {
+                out[found++] = email;
+            }
+        }
+        return out;
+    }
+}
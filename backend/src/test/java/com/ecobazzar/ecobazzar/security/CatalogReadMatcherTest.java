@@ -0,0 +1,40 @@
+package com.ecobazzar.ecobazzar.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class CatalogReadMatcherTest {
+
+    private final CatalogReadMatcher matcher = new CatalogReadMatcher();
+
+    @Test
+    void onlyAnonymousCatalogReadsTakeTheFastLane() {
+        assertThat(matches("GET", "/api/products")).isTrue();
+        assertThat(matches("GET", "/api/products/42")).isTrue();
+        assertThat(matches("GET", "/api/products/search")).isTrue();
+        assertThat(matches("GET", "/api/products/page")).isTrue();
+
+        assertThat(matches("GET", "/api/products/seller")).isFalse();
+        assertThat(matches("GET", "/api/products/ai/suggestions")).isFalse();
+        assertThat(matches("POST", "/api/products")).isFalse();
+        assertThat(matches("DELETE", "/api/products/42")).isFalse();
+        assertThat(matches("GET", "/api/productsX")).isFalse();
+        assertThat(matches("GET", "/api/cart")).isFalse();
+    }
+
+    @Test
+    void theSellerSegmentIsComparedTheWayMvcRoutesIt() {
+        assertThat(matches("GET", "/api/products/")).isTrue();
+        assertThat(matches("GET", "/api/products/eco%20bag")).isTrue();
+
+        assertThat(matches("GET", "/api/products/%73eller")).isFalse();
+        assertThat(matches("GET", "/api/products/seller;jsessionid=1")).isFalse();
+        assertThat(matches("GET", "/api/products/ai%2Fsuggestions")).isFalse();
+    }
+
+    private boolean matches(String method, String path) {
+        return matcher.matches(new MockHttpServletRequest(method, path));
+    }
+}
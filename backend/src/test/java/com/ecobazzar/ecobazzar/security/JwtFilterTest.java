@@ -0,0 +1,72 @@
+package com.ecobazzar.ecobazzar.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.ecobazzar.ecobazzar.util.JwtUtil;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtFilterTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil("test_secret_key_that_is_long_enough_for_hs256", 60_000, 600_000, 100,
+            new SimpleMeterRegistry());
+    private final TokenDenyList denyList = new TokenDenyList(new SimpleMeterRegistry());
+    private final JwtFilter filter = new JwtFilter(jwtUtil, denyList);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void bearerTokenBecomesTypedPrincipal() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cart/summary");
+        request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken("a@example.com", "ROLE_SELLER", 42L));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(auth.getName()).isEqualTo("a@example.com");
+        assertThat(auth.getPrincipal()).isEqualTo(
+                new AuthenticatedUser(42L, "a@example.com", Role.SELLER.mask()));
+        assertThat(auth.getAuthorities()).extracting("authority").containsExactly("ROLE_SELLER");
+    }
+
+    @Test
+    void invalidTokenLeavesRequestAnonymous() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cart/summary");
+        request.addHeader("Authorization", "Bearer not-a-token");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void revokedAndRefreshTokensAreNotAccepted() throws Exception {
+        String revoked = jwtUtil.generateToken("a@example.com", "ROLE_USER", 42L);
+        Claims claims = jwtUtil.verify(revoked);
+        denyList.add(JwtUtil.tokenId(claims), claims.getExpiration().toInstant());
+
+        for (String token : List.of(revoked, jwtUtil.generateRefreshToken("a@example.com", 42L, UUID.randomUUID(), 0))) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cart/summary");
+            request.addHeader("Authorization", "Bearer " + token);
+
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+            assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecobazzar.ecobazzar.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.ecobazzar.ecobazzar.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PasswordHasherTest {
+
+    @Test
+    void refusesWorkOnceThePoolAndQueueAreFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence raw) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(raw);
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHasher hasher = new PasswordHasher(slow, 4, 1, 1, Runnable::run, registry);
+
+        CompletableFuture<String> running = hasher.encode("one");
+        CompletableFuture<String> queued = hasher.encode("two");
+        assertThatThrownBy(() -> hasher.encode("three")).isInstanceOf(TooManyRequestsException.class);
+        assertThat(registry.get("auth.password.hash.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(slow.matches("one", running.get(5, TimeUnit.SECONDS))).isTrue();
+        assertThat(slow.matches("two", queued.get(5, TimeUnit.SECONDS))).isTrue();
+        hasher.shutdown();
+    }
+
+    @Test
+    void rehashIsNeededOnlyWhenTheCostDiffers() {
+        PasswordHasher hasher = new PasswordHasher(new BCryptPasswordEncoder(5), 5, 1, 1, Runnable::run, new SimpleMeterRegistry());
+
+        assertThat(hasher.needsRehash(new BCryptPasswordEncoder(5).encode("pw"))).isFalse();
+        assertThat(hasher.needsRehash(new BCryptPasswordEncoder(4).encode("pw"))).isTrue();
+        assertThat(hasher.needsRehash(new BCryptPasswordEncoder(6).encode("pw"))).isTrue();
+        assertThat(hasher.needsRehash("{noop}plain")).isFalse();
+        hasher.shutdown();
+    }
+}
@@ -0,0 +1,50 @@
+package com.ecobazzar.ecobazzar.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+class RouteAuthorizationManagerTest {
+
+    private final RouteAuthorizationManager manager = new RouteAuthorizationManager();
+
+    private final Authentication anonymous = new AnonymousAuthenticationToken("key", "anonymous",
+            Role.grantedAuthorities(Role.USER.mask()));
+
+    @Test
+    void catalogReadsArePublicButPersonalisedReadsAreNot() {
+        assertThat(allowed(anonymous, "GET", "/api/products")).isTrue();
+        assertThat(allowed(anonymous, "GET", "/api/products/42")).isTrue();
+        assertThat(allowed(anonymous, "GET", "/api/products/seller")).isFalse();
+        assertThat(allowed(user(Role.SELLER), "GET", "/api/products/seller")).isTrue();
+        assertThat(allowed(user(Role.SELLER), "GET", "/api/products/ai/suggestions")).isFalse();
+        assertThat(allowed(anonymous, "POST", "/api/auth/login")).isTrue();
+    }
+
+    @Test
+    void rolesMatchTheEndpointMask() {
+        assertThat(allowed(user(Role.USER), "POST", "/api/cart")).isTrue();
+        assertThat(allowed(user(Role.SELLER), "POST", "/api/cart")).isFalse();
+        assertThat(allowed(user(Role.SELLER), "PUT", "/api/products/5")).isTrue();
+        assertThat(allowed(user(Role.USER), "DELETE", "/api/products/5")).isFalse();
+        assertThat(allowed(user(Role.ADMIN), "PUT", "/api/admin/approveSeller/3")).isTrue();
+        assertThat(allowed(user(Role.SELLER), "GET", "/api/admin/reports")).isFalse();
+        assertThat(allowed(user(Role.SELLER), "POST", "/api/admin-request/request")).isTrue();
+        assertThat(allowed(anonymous, "GET", "/api/orders")).isFalse();
+    }
+
+    private boolean allowed(Authentication auth, String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        return manager.authorize(() -> auth, new RequestAuthorizationContext(request)).isGranted();
+    }
+
+    private static Authentication user(Role role) {
+        return new UsernamePasswordAuthenticationToken(new AuthenticatedUser(1L, "a@example.com", role.mask()), null,
+                Role.grantedAuthorities(role.mask()));
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecobazzar.ecobazzar.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TokenDenyListTest {
+
+    private final TokenDenyList denyList = new TokenDenyList(new SimpleMeterRegistry());
+
+    @Test
+    void tokensWithinTheClockSkewStayListedThroughAPurge() {
+        // the parser still accepts this token for another 30 seconds
+        UUID jti = UUID.randomUUID();
+        Instant expiredAt = Instant.now().minusSeconds(30);
+
+        assertThat(denyList.add(jti, expiredAt)).isTrue();
+        denyList.purgeExpired();
+
+        assertThat(denyList.contains(jti, expiredAt)).isTrue();
+    }
+
+    @Test
+    void tokensPastTheClockSkewAreNotKept() {
+        UUID jti = UUID.randomUUID();
+        Instant expiredAt = Instant.now().minusSeconds(180);
+
+        denyList.add(jti, expiredAt);
+
+        assertThat(denyList.contains(jti, expiredAt)).isFalse();
+    }
+}
@@ -0,0 +1,105 @@
+package com.ecobazzar.ecobazzar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.ecobazzar.ecobazzar.config.CorrelationIdFilter;
+import com.ecobazzar.ecobazzar.dto.LoginRequest;
+import com.ecobazzar.ecobazzar.dto.RegisterRequest;
+import com.ecobazzar.ecobazzar.model.User;
+import com.ecobazzar.ecobazzar.repository.UserRepository;
+import com.ecobazzar.ecobazzar.security.AuditLog;
+import com.ecobazzar.ecobazzar.security.PasswordHasher;
+import com.ecobazzar.ecobazzar.util.JwtUtil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuthServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserIdentityCache identities = mock(UserIdentityCache.class);
+    private final TokenRevocationService revocations = mock(TokenRevocationService.class);
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final AuditLog audit = mock(AuditLog.class);
+    // what each audit event saw: its correlation id and the thread it ran on
+    private final List<String> events = new ArrayList<>();
+
+    private ExecutorService callbacks;
+    private PasswordHasher hasher;
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        callbacks = Executors.newSingleThreadExecutor(r -> new Thread(r, "task-1"));
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(4), 4, 1, 8, callbacks, new SimpleMeterRegistry());
+        authService = new AuthService(userRepository, hasher, jwtUtil, mock(EmailMembershipFilter.class), identities,
+                revocations, audit, mock(PlatformTotalsService.class));
+
+        doAnswer(inv -> record("registered")).when(audit).registered(anyLong());
+        doAnswer(inv -> record("login.success")).when(audit).loginSucceeded(anyLong());
+        doAnswer(inv -> record("login.failure")).when(audit).loginFailed(anyString(), anyString());
+        when(userRepository.save(any(User.class))).thenAnswer(inv -> {
+            User u = inv.getArgument(0);
+            u.setId(7L);
+            return u;
+        });
+        when(revocations.startFamily(7L)).thenReturn(new TokenRevocationService.RefreshFamily(UUID.randomUUID(), 0));
+        when(jwtUtil.generateToken(anyString(), anyString(), eq(7L))).thenReturn("access");
+        MDC.put(CorrelationIdFilter.MDC_KEY, "req-42");
+    }
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+        hasher.shutdown();
+        callbacks.shutdownNow();
+    }
+
+    @Test
+    void auditEventsAfterHashingKeepTheCorrelationIdAndLeaveTheHashingPool() throws Exception {
+        authService.register(new RegisterRequest("Asha", "asha@example.com", "secret-pw")).get(5, TimeUnit.SECONDS);
+
+        String hash = new BCryptPasswordEncoder(4).encode("secret-pw");
+        when(identities.byEmail("asha@example.com")).thenReturn(Optional.of(
+                new UserIdentityCache.UserIdentity(7L, "Asha", "asha@example.com", "ROLE_USER", 0, false, hash)));
+        authService.login(login("asha@example.com", "secret-pw")).get(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> authService.login(login("asha@example.com", "wrong")).get(5, TimeUnit.SECONDS))
+                .hasMessageContaining("Invalid credentials");
+
+        assertThat(events).containsExactly(
+                "registered req-42 task-1", "login.success req-42 task-1", "login.failure req-42 task-1");
+    }
+
+    private Object record(String event) {
+        events.add(event + " " + MDC.get(CorrelationIdFilter.MDC_KEY) + " " + Thread.currentThread().getName());
+        return null;
+    }
+
+    private static LoginRequest login(String email, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(email);
+        request.setPassword(password);
+        return request;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecobazzar.ecobazzar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecobazzar.ecobazzar.model.CartItem;
+import com.ecobazzar.ecobazzar.model.Product;
+import com.ecobazzar.ecobazzar.repository.CartRepository;
+import com.ecobazzar.ecobazzar.repository.ProductRepository;
+
+// the upsert is MySQL native SQL, so H2 runs in MySQL mode
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:cart_upsert;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CartService.class, ProductHydrator.class, JpaCartStore.class, CartTotalsTracker.class,
+        ProductSearchIndex.class})
+// every add commits on its own, as it does behind the controller
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartServiceAddToCartTest {
+
+    @Autowired private CartService cartService;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private ProductRepository productRepository;
+
+    @AfterEach
+    void cleanUp() {
+        cartRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void addingAProductAgainMergesIntoItsLine() {
+        Long productId = product("Jute Bag");
+
+        CartItem first = cartService.addToCart(new CartItem(null, 7L, productId, 2));
+        CartItem second = cartService.addToCart(new CartItem(null, 7L, productId, 3));
+
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertThat(cartRepository.findByUserId(7L)).extracting(CartItem::getQuantity).containsExactly(5);
+    }
+
+    @Test
+    void concurrentAddsEndUpInOneRowWithTheSummedQuantity() throws Exception {
+        Long productId = product("Steel Bottle");
+        int threads = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<CartItem>> adds = new ArrayList<>();
+            for (int i = 1; i <= threads; i++) {
+                int quantity = i;
+                adds.add(pool.submit(() -> {
+                    start.await();
+                    return cartService.addToCart(new CartItem(null, 7L, productId, quantity));
+                }));
+            }
+            start.countDown();
+            for (Future<CartItem> add : adds) {
+                add.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(cartRepository.findByUserId(7L)).extracting(CartItem::getQuantity)
+                .containsExactly(threads * (threads + 1) / 2);
+    }
+
+    @Test
+    void rejectsQuantitiesBelowOne() {
+        Long productId = product("Cotton Shirt");
+
+        assertThatThrownBy(() -> cartService.addToCart(new CartItem(null, 7L, productId, 0)))
+                .hasMessage("Quantity must be greater than zero");
+        assertThatThrownBy(() -> cartService.addToCart(new CartItem(null, 7L, productId, -2)))
+                .hasMessage("Quantity must be greater than zero");
+        assertThat(cartRepository.findByUserId(7L)).isEmpty();
+    }
+
+    private Long product(String name) {
+        Product p = new Product();
+        p.setName(name);
+        p.setPrice(5.0);
+        p.setCarbonImpact(1.0);
+        return productRepository.save(p).getId();
+    }
+}
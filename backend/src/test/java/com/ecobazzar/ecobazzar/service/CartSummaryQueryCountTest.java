@@ -0,0 +1,71 @@
+package com.ecobazzar.ecobazzar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.ecobazzar.ecobazzar.dto.CartSummaryDto;
+import com.ecobazzar.ecobazzar.model.CartItem;
+import com.ecobazzar.ecobazzar.model.Product;
+import com.ecobazzar.ecobazzar.repository.CartRepository;
+import com.ecobazzar.ecobazzar.repository.ProductRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({CartService.class, ProductHydrator.class, JpaCartStore.class, CartTotalsTracker.class,
+        ProductSearchIndex.class})
+class CartSummaryQueryCountTest {
+
+    @Autowired private CartService cartService;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private ProductSearchIndex productSearchIndex;
+
+    @Test
+    void cartSummaryIssuesConstantNumberOfSelects() {
+        long small = selectsForCartOf(2, 1L);
+        long large = selectsForCartOf(40, 2L);
+
+        assertThat(large).isEqualTo(small);
+        // cart lines and one IN query for the products; the eco alternative comes from the search index
+        assertThat(large).isLessThanOrEqualTo(2);
+    }
+
+    private long selectsForCartOf(int lines, Long userId) {
+        productSearchIndex.onProductSaved(productRepository.save(product("Organic Cotton Shirt", true, 1.0)));
+        for (int i = 0; i < lines; i++) {
+            Product p = productRepository.save(product("Plain Shirt " + i, false, 5.0));
+            cartRepository.save(new CartItem(null, userId, p.getId(), 1));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        CartSummaryDto summary = cartService.getCartSummary(userId);
+
+        assertThat(summary.getItems()).hasSize(lines);
+        assertThat(summary.getTotalPrice()).isEqualTo(5.0 * lines);
+        assertThat(summary.getSwapSuggestion()).isNotNull();
+        return stats.getPrepareStatementCount();
+    }
+
+    private static Product product(String name, boolean eco, double carbon) {
+        Product p = new Product();
+        p.setName(name);
+        p.setPrice(5.0);
+        p.setCarbonImpact(carbon);
+        p.setEcoCertified(eco);
+        return p;
+    }
+}
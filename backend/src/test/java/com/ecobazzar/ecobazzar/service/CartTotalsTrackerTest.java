@@ -0,0 +1,98 @@
+package com.ecobazzar.ecobazzar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.ecobazzar.ecobazzar.model.CartItem;
+import com.ecobazzar.ecobazzar.model.Product;
+
+class CartTotalsTrackerTest {
+
+    private final CartTotalsTracker tracker = new CartTotalsTracker(100, 60);
+
+    @Test
+    void cartChangesAdjustTheStoredTotals() {
+        Product shirt = product(1L, 10.0, 2.0);
+        Product bag = product(2L, 4.0, 0.5);
+        List<CartItem> items = List.of(new CartItem(1L, 7L, 1L, 2));
+        tracker.store(7L, tracker.stamp(7L), CartTotalsTracker.Snapshot.of(items, Map.of(1L, shirt)));
+
+        tracker.lineChanged(7L, bag, 3);
+        tracker.lineChanged(7L, shirt, 1);
+        tracker.lineRemoved(7L, 2L);
+
+        CartTotalsTracker.Snapshot totals = tracker.get(7L);
+        assertThat(totals.totalPrice()).isEqualTo(30.0);
+        assertThat(totals.totalCarbonUsed()).isEqualTo(6.0);
+        assertThat(totals.itemCount()).isEqualTo(3);
+        assertThat(totals.matches(List.of(new CartItem(1L, 7L, 1L, 3)))).isTrue();
+    }
+
+    @Test
+    void totalsComputedBeforeAChangeAreNotStored() {
+        CartTotalsTracker.Stamp stamp = tracker.stamp(7L);
+        tracker.lineChanged(7L, product(1L, 10.0, 2.0), 1);
+
+        tracker.store(7L, stamp, CartTotalsTracker.Snapshot.of(List.of(), Map.of()));
+
+        assertThat(tracker.get(7L)).isNull();
+    }
+
+    @Test
+    void productChangeDropsOnlyCartsHoldingIt() {
+        Product shirt = product(1L, 10.0, 2.0);
+        Product bag = product(2L, 4.0, 0.5);
+        tracker.store(7L, tracker.stamp(7L),
+                CartTotalsTracker.Snapshot.of(List.of(new CartItem(1L, 7L, 1L, 1)), Map.of(1L, shirt)));
+        tracker.store(8L, tracker.stamp(8L),
+                CartTotalsTracker.Snapshot.of(List.of(new CartItem(2L, 8L, 2L, 1)), Map.of(2L, bag)));
+
+        tracker.productChanged(1L);
+
+        assertThat(tracker.get(7L)).isNull();
+        assertThat(tracker.get(8L)).isNotNull();
+    }
+
+    @Test
+    void productChangeAppliesWhenItCommits() {
+        tracker.store(7L, tracker.stamp(7L), CartTotalsTracker.Snapshot.of(
+                List.of(new CartItem(1L, 7L, 1L, 1)), Map.of(1L, product(1L, 10.0, 2.0))));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tracker.productChanged(1L);
+            assertThat(tracker.get(7L)).isNotNull();
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(tracker.get(7L)).isNull();
+    }
+
+    @Test
+    void snapshotsExpireEvenWhenTheCartIsEdited() {
+        CartTotalsTracker shortLived = new CartTotalsTracker(100, 0);
+        shortLived.store(7L, shortLived.stamp(7L), CartTotalsTracker.Snapshot.of(List.of(), Map.of()));
+        shortLived.lineChanged(7L, product(1L, 10.0, 2.0), 1);
+
+        assertThat(shortLived.get(7L)).isNull();
+    }
+
+    private static Product product(Long id, double price, double carbon) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName("Product " + id);
+        p.setPrice(price);
+        p.setCarbonImpact(carbon);
+        p.setEcoCertified(false);
+        return p;
+    }
+}
@@ -0,0 +1,161 @@
+package com.ecobazzar.ecobazzar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ecobazzar.ecobazzar.model.Order;
+import com.ecobazzar.ecobazzar.model.OrderItem;
+import com.ecobazzar.ecobazzar.model.Product;
+import com.ecobazzar.ecobazzar.model.SellerDailyTotals;
+import com.ecobazzar.ecobazzar.model.User;
+import com.ecobazzar.ecobazzar.model.UserDailyTotals;
+import com.ecobazzar.ecobazzar.repository.OrderItemRepository;
+import com.ecobazzar.ecobazzar.repository.OrderRepository;
+import com.ecobazzar.ecobazzar.repository.ProductRepository;
+import com.ecobazzar.ecobazzar.repository.SellerDailyTotalsRepository;
+import com.ecobazzar.ecobazzar.repository.UserDailyTotalsRepository;
+import com.ecobazzar.ecobazzar.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// the checkout upserts are MySQL native SQL, so H2 runs in MySQL mode
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:daily_rollups;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DailyRollups.class, UserSummaryCache.class, SimpleMeterRegistry.class})
+class DailyRollupsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 1);
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderItemRepository orderItemRepository;
+    @Autowired private UserDailyTotalsRepository userTotals;
+    @Autowired private SellerDailyTotalsRepository sellerTotals;
+    @Autowired private DailyRollups rollups;
+    @Autowired private UserSummaryCache summaries;
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Test
+    void checkoutIncrementsMatchABackfillFromTheOrderTables() {
+        User seller = user("seller@example.com");
+        User buyer = user("buyer@example.com");
+        Product mug = product(seller, 8.0);
+        Product bag = product(seller, 5.0);
+
+        checkout(buyer, DAY, Map.of(mug, 2, bag, 1));
+        checkout(buyer, DAY, Map.of(mug, 1));
+        checkout(buyer, DAY.plusDays(1), Map.of(bag, 3));
+
+        List<UserDailyTotals> userRows = userTotals.findRange(buyer.getId(), DAY, DAY.plusDays(1));
+        List<SellerDailyTotals> sellerRows = sellerTotals.findRange(seller.getId(), DAY, DAY.plusDays(1));
+        assertThat(userRows).extracting(UserDailyTotals::getOrderCount).containsExactly(2L, 1L);
+        assertThat(userRows).extracting(UserDailyTotals::getSpent).containsExactly(29.0, 15.0);
+        assertThat(sellerRows).extracting(SellerDailyTotals::getUnits).containsExactly(4L, 3L);
+        assertThat(sellerRows).extracting(SellerDailyTotals::getRevenue).containsExactly(29.0, 15.0);
+        UserSummaryCache.Summary lifetime = summaries.get(buyer.getId());
+        assertThat(lifetime).isEqualTo(new UserSummaryCache.Summary(3, 44.0, 3.0, 0.0));
+
+        entityManager.clear();
+        DailyRollups.Backfill backfill = rollups.backfill(DAY.minusDays(40), DAY.plusDays(2));
+        entityManager.clear();
+
+        assertThat(backfill.userRows()).isEqualTo(2);
+        assertThat(backfill.sellerRows()).isEqualTo(2);
+        assertThat(userTotals.findRange(buyer.getId(), DAY, DAY.plusDays(1)))
+                .usingRecursiveFieldByFieldElementComparator().isEqualTo(userRows);
+        assertThat(sellerTotals.findRange(seller.getId(), DAY, DAY.plusDays(1)))
+                .usingRecursiveFieldByFieldElementComparator().isEqualTo(sellerRows);
+        assertThat(summaries.get(buyer.getId())).isNotSameAs(lifetime).isEqualTo(lifetime);
+        assertThat(summaries.get(seller.getId())).isEqualTo(new UserSummaryCache.Summary(0, 0.0, 0.0, 0.0));
+    }
+
+    @Test
+    void historyIsBackfilledOnceAndTheWatermarkStopsEveryInstance() {
+        User buyer = user("buyer@example.com");
+        // placed before checkout maintained the rollups
+        orderRepository.save(new Order(null, buyer.getId(), DAY, 1.0, 0.0, 1.0, 12.0));
+        orderRepository.save(new Order(null, buyer.getId(), DAY.plusDays(3), 1.0, 0.0, 1.0, 8.0));
+        orderRepository.flush();
+
+        anInstance().backfillHistoryOnce();
+
+        assertThat(userTotals.findRange(buyer.getId(), DAY, DAY.plusDays(3))).hasSize(2);
+        assertThat(summaries.get(buyer.getId())).isEqualTo(new UserSummaryCache.Summary(2, 20.0, 2.0, 0.0));
+
+        jdbcTemplate.update("DELETE FROM user_daily_totals");
+        anInstance().backfillHistoryOnce();
+        assertThat(userTotals.findRange(buyer.getId(), DAY, DAY.plusDays(3))).isEmpty();
+    }
+
+    @Test
+    void anInstanceLeavesTheBackfillToTheOneHoldingTheClaimUntilItLapses() {
+        User buyer = user("buyer@example.com");
+        orderRepository.save(new Order(null, buyer.getId(), DAY, 1.0, 0.0, 1.0, 12.0));
+        orderRepository.flush();
+        jdbcTemplate.update("INSERT INTO rollup_watermark (id, claimed_until) VALUES (1, ?)",
+                Timestamp.valueOf(LocalDateTime.now().plusMinutes(5)));
+
+        DailyRollups instance = anInstance();
+        instance.backfillHistoryOnce();
+        assertThat(userTotals.findRange(buyer.getId(), DAY, DAY)).isEmpty();
+
+        jdbcTemplate.update("UPDATE rollup_watermark SET claimed_until = ? WHERE id = 1",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(1)));
+        instance.backfillHistoryOnce();
+        assertThat(userTotals.findRange(buyer.getId(), DAY, DAY)).hasSize(1);
+    }
+
+    // a fresh instance each time: what one has already seen must not hide what is in the database
+    private DailyRollups anInstance() {
+        return new DailyRollups(jdbcTemplate, transactionManager, summaries, 31, 60);
+    }
+
+    private void checkout(User buyer, LocalDate day, Map<Product, Integer> lines) {
+        double total = lines.entrySet().stream().mapToDouble(e -> e.getKey().getPrice() * e.getValue()).sum();
+        Order order = orderRepository.save(new Order(null, buyer.getId(), day, 1.0, 0.0, 1.0, total));
+        List<OrderItem> items = lines.entrySet().stream()
+                .map(e -> new OrderItem(null, order.getId(), e.getKey().getId(), e.getValue()))
+                .toList();
+        orderItemRepository.saveAll(items);
+        orderItemRepository.flush();
+        Map<Long, Product> products = new HashMap<>();
+        lines.keySet().forEach(p -> products.put(p.getId(), p));
+        rollups.orderPlaced(order, items, products);
+    }
+
+    private User user(String email) {
+        User u = new User();
+        u.setName(email);
+        u.setEmail(email);
+        u.setPassword("x");
+        u.setRole("ROLE_USER");
+        return userRepository.save(u);
+    }
+
+    private Product product(User seller, double price) {
+        Product p = new Product();
+        p.setName("Product");
+        p.setPrice(price);
+        p.setCarbonImpact(1.0);
+        p.setSeller(seller);
+        return productRepository.save(p);
+    }
+}
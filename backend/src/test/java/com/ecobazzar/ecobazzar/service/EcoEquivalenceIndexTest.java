@@ -0,0 +1,209 @@
+package com.ecobazzar.ecobazzar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ecobazzar.ecobazzar.model.Product;
+import com.ecobazzar.ecobazzar.repository.ProductRepository;
+
+class EcoEquivalenceIndexTest {
+
+    // the catalog as the table would hold it, in primary-key order
+    private final TreeMap<Long, Product> catalog = new TreeMap<>();
+    private EcoEquivalenceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        put(product(1L, "Organic Cotton T-Shirt", true, 2.0));
+        put(product(2L, "Cotton Polyester Shirt", false, 1.0));
+        put(product(3L, "Cotton T-Shirt", false, 3.0));
+        put(product(4L, "Bamboo Toothbrush", true, 0.2));
+        put(product(5L, "Plastic Toothbrush", false, 0.9));
+        put(product(6L, "Toothbrush Travel Pack", false, 0.9));
+        put(product(7L, "Eco Rice 5kg", true, 4.0));
+        put(product(8L, "Rice", false, null));
+        put(product(9L, "Steel Bottle", true, 1.5));
+
+        ProductRepository repository = mock(ProductRepository.class);
+        when(repository.findAll()).thenAnswer(inv -> new ArrayList<>(catalog.values()));
+        index = new EcoEquivalenceIndex(repository);
+        index.rebuild();
+    }
+
+    @Test
+    void matchesTheCatalogScanAfterRebuild() {
+        assertMatchesScan();
+        // the two cotton shirts are both 1.0 away: the lower id wins, as in the scan, and here saves nothing
+        assertThat(index.findMatch(1L)).map(EcoEquivalenceIndex.Match::conventionalProductId).contains(2L);
+        assertThat(index.carbonSavedPerUnit(1L)).isZero();
+        // equal carbon, so the first toothbrush in id order
+        assertThat(index.findMatch(4L)).map(EcoEquivalenceIndex.Match::conventionalProductId).contains(5L);
+        assertThat(index.carbonSavedPerUnit(9L)).isZero();
+    }
+
+    @Test
+    void followsCreateUpdateDeleteAndApprove() {
+        // create a conventional product that becomes the closest counterpart
+        save(product(10L, "Plastic Bottle", false, 2.5));
+        assertMatchesScan();
+        assertThat(index.carbonSavedPerUnit(9L)).isEqualTo(1.0);
+
+        // update the current counterpart so another one takes over
+        save(product(5L, "Plastic Toothbrush", false, 3.0));
+        assertMatchesScan();
+        assertThat(index.findMatch(4L)).map(EcoEquivalenceIndex.Match::conventionalProductId).contains(6L);
+
+        // rename a counterpart out of its bucket
+        save(product(6L, "Hair Comb", false, 0.9));
+        assertMatchesScan();
+
+        // approval turns a conventional product into an eco one, as AdminService.approveProduct does
+        Product approved = catalog.get(2L);
+        approved.setEcoCertified(true);
+        save(approved);
+        assertMatchesScan();
+        assertThat(index.findMatch(1L)).map(EcoEquivalenceIndex.Match::conventionalProductId).contains(3L);
+
+        // delete the counterpart of two eco products at once
+        delete(3L);
+        assertMatchesScan();
+        delete(1L);
+        assertMatchesScan();
+        assertThat(index.findMatch(1L)).isEmpty();
+    }
+
+    @Test
+    void readersNeverSeeAMatchMissingWhileItIsReplaced() throws Exception {
+        Product toothbrush = catalog.get(4L);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger misses = new AtomicInteger();
+        Thread checkout = new Thread(() -> {
+            while (!done.get()) {
+                if (index.findMatch(4L).isEmpty()) misses.incrementAndGet();
+            }
+        });
+        checkout.start();
+        try {
+            for (int i = 0; i < 20_000; i++) {
+                // an unrelated edit of the eco product and of its counterpart, as the product form sends them
+                save(toothbrush);
+                save(catalog.get(5L));
+            }
+        } finally {
+            done.set(true);
+            checkout.join();
+        }
+        assertThat(misses).hasValue(0);
+    }
+
+    @Test
+    void agreesWithTheScanOverRandomWrites() {
+        String[] names = {"Organic Cotton T-Shirt", "Cotton T-Shirt", "Polyester Shirt", "Bamboo Toothbrush",
+                "Plastic Toothbrush", "Eco Rice 5kg", "Basmati Rice", "Steel Bottle", "Plastic Bottle",
+                "Bottle Brush", "Green Tea", "Tea Bags", "Pure Soap", "Soap Bar", "Pack"};
+        Double[] carbons = {null, 0.5, 1.0, 1.5, 2.0, 3.0};
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            long id = 1 + random.nextInt(20);
+            if (random.nextInt(5) == 0) {
+                delete(id);
+            } else {
+                save(product(id, names[random.nextInt(names.length)], random.nextBoolean(),
+                        carbons[random.nextInt(carbons.length)]));
+            }
+            assertMatchesScan();
+        }
+    }
+
+    private void assertMatchesScan() {
+        for (Product p : catalog.values()) {
+            if (!Boolean.TRUE.equals(p.getEcoCertified())) continue;
+            assertThat(index.carbonSavedPerUnit(p.getId()))
+                    .as("carbon saved per unit of product %d (%s)", p.getId(), p.getName())
+                    .isEqualTo(scanSavedPerUnit(p));
+        }
+    }
+
+    // checkout's per-line algorithm before the index: scan every conventional product in id order
+    private double scanSavedPerUnit(Product product) {
+        double carbon = product.getCarbonImpact() != null ? product.getCarbonImpact() : 0.0;
+        List<Product> nonEcoCandidates = catalog.values().stream()
+                .filter(p -> !Boolean.TRUE.equals(p.getEcoCertified()))
+                .toList();
+
+        Optional<Product> matchedConventional = nonEcoCandidates.stream()
+                .filter(p -> {
+                    String ecoKey = extractKeyword(product.getName());
+                    String nonEcoKey = extractKeyword(p.getName());
+                    String ecoName = product.getName().toLowerCase();
+                    String nonEcoName = p.getName().toLowerCase();
+
+                    return ecoKey.equals(nonEcoKey) ||
+                           ecoName.contains(nonEcoKey) ||
+                           nonEcoName.contains(ecoKey);
+                })
+                .min(Comparator.comparingDouble(p -> {
+                    double otherCarbon = p.getCarbonImpact() != null ? p.getCarbonImpact() : 0.0;
+                    return Math.abs(otherCarbon - carbon);
+                }));
+
+        if (matchedConventional.isPresent()) {
+            double conventionalCarbon = matchedConventional.get().getCarbonImpact() != null
+                    ? matchedConventional.get().getCarbonImpact() : carbon;
+            return Math.max(0.0, conventionalCarbon - carbon);
+        }
+        return 0.0;
+    }
+
+    private static String extractKeyword(String name) {
+        if (name == null || name.isBlank()) return "product";
+
+        String cleaned = name.toLowerCase()
+                .replaceAll("\\b(eco|organic|friendly|certified|premium|gold|silver|natural|bamboo|bio|pure|green|kg|g|pack|1kg|5kg|10kg|litre|l|ml|gm)\\b", "")
+                .replaceAll("[^a-z\\s]", " ")
+                .replaceAll("\\s+", " ")
+                .trim();
+
+        return Arrays.stream(cleaned.split("\\s+"))
+                .filter(w -> w.length() >= 3)
+                .max(Comparator.comparingInt(String::length))
+                .orElse("product");
+    }
+
+    private void put(Product p) {
+        catalog.put(p.getId(), p);
+    }
+
+    private void save(Product p) {
+        put(p);
+        index.onProductSaved(p);
+    }
+
+    private void delete(Long id) {
+        if (catalog.remove(id) != null) index.onProductDeleted(id);
+    }
+
+    private static Product product(Long id, String name, boolean eco, Double carbon) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setEcoCertified(eco);
+        p.setCarbonImpact(carbon);
+        return p;
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecobazzar.ecobazzar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.ecobazzar.ecobazzar.model.User;
+import com.ecobazzar.ecobazzar.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest(properties = {"auth.email-filter.fetch-size=100", "auth.email-filter.expected-insertions=1000"})
+@Import({EmailMembershipFilter.class, SimpleMeterRegistry.class})
+class EmailMembershipFilterTest {
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private EmailMembershipFilter filter;
+
+    @Test
+    void knownEmailsAreAlwaysMaybeAndFreshOnesMostlyAbsent() {
+        for (int i = 0; i < 200; i++) {
+            User u = new User();
+            u.setName("User " + i);
+            u.setEmail("user" + i + "@example.com");
+            u.setPassword("x");
+            u.setRole("ROLE_USER");
+            userRepository.save(u);
+        }
+        userRepository.flush();
+        filter.rebuild();
+        filter.add("Late.Signup@Example.com");
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(filter.mightContain("USER" + i + "@example.com ")).isTrue();
+        }
+        assertThat(filter.mightContain("late.signup@example.com")).isTrue();
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("fresh" + i + "@example.org")) falsePositives++;
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
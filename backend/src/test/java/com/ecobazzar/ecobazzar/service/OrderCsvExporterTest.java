@@ -0,0 +1,61 @@
+package com.ecobazzar.ecobazzar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.ecobazzar.ecobazzar.model.Order;
+import com.ecobazzar.ecobazzar.repository.OrderRepository;
+
+@DataJpaTest(properties = "reports.export.fetch-size=100")
+@Import(OrderCsvExporter.class)
+class OrderCsvExporterTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 1);
+
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderCsvExporter exporter;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void orders() {
+        for (int i = 0; i < 5; i++) {
+            ids.add(orderRepository.save(new Order(null, 7L, DAY.plusDays(i), 2.0, 0.5, 1.5, 10.0 + i)).getId());
+        }
+        orderRepository.flush();
+    }
+
+    @Test
+    void dateRangeAndResumePointSelectRowsInIdOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.write(out, new OrderCsvExporter.Range(DAY.plusDays(1), DAY.plusDays(4), ids.get(1), 1), false);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(OrderCsvExporter.HEADER
+                + ids.get(2) + ",7,12.0,2.0,0.5,2025-03-03\n");
+    }
+
+    @Test
+    void gzipOutputInflatesToThePlainExport() throws Exception {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+        exporter.write(plain, OrderCsvExporter.Range.ALL, false);
+        exporter.write(zipped, OrderCsvExporter.Range.ALL, true);
+
+        byte[] inflated = new GZIPInputStream(new ByteArrayInputStream(zipped.toByteArray())).readAllBytes();
+        assertThat(inflated).isEqualTo(plain.toByteArray());
+        assertThat(plain.toString(StandardCharsets.UTF_8).lines()).hasSize(6);
+    }
+}
@@ -0,0 +1,105 @@
+package com.ecobazzar.ecobazzar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecobazzar.ecobazzar.model.Order;
+import com.ecobazzar.ecobazzar.repository.OrderRepository;
+import com.ecobazzar.ecobazzar.repository.PlatformTotalsRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// the slot seed is MySQL native SQL, so H2 runs in MySQL mode
+@DataJpaTest(properties = {"platform.totals.slots=4",
+        "spring.datasource.url=jdbc:h2:mem:platform_totals;MODE=MySQL;DB_CLOSE_DELAY=-1"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PlatformTotalsService.class, SimpleMeterRegistry.class})
+class PlatformTotalsServiceTest {
+
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private PlatformTotalsService totals;
+    @Autowired private PlatformTotalsRepository totalsRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Test
+    void incrementsAcrossSlotsAddUpToTheOrders() {
+        for (int i = 1; i <= 20; i++) {
+            orderRepository.save(new Order(null, 7L, LocalDate.now(), 2.0, 0.5, 1.5, 10.0));
+            totals.orderPlaced(10.0, 2.0, 0.5);
+        }
+
+        PlatformTotalsService.Totals current = totals.current();
+        assertThat(current.orders()).isEqualTo(20);
+        assertThat(current.revenue()).isEqualTo(200.0);
+        assertThat(current.carbonUsed()).isEqualTo(40.0);
+        assertThat(current.carbonSaved()).isEqualTo(10.0);
+        assertThat(totals.reconcile().drifted()).isFalse();
+    }
+
+    @Test
+    void reconcileReportsAndRepairsDrift() {
+        orderRepository.save(new Order(null, 7L, LocalDate.now(), 3.0, 1.0, 2.0, 25.0));
+        totals.productAdded();
+
+        PlatformTotalsService.Reconciliation result = totals.reconcile();
+
+        assertThat(result.drifted()).isTrue();
+        assertThat(result.recorded().orders()).isZero();
+        assertThat(result.recorded().products()).isEqualTo(1);
+        assertThat(result.actual().orders()).isEqualTo(1);
+        assertThat(result.actual().products()).isZero();
+        assertThat(totals.current()).isEqualTo(result.actual());
+        assertThat(totals.reconcile().drifted()).isFalse();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void instancesSeedingAnEmptyTableTogetherBothStart() throws Exception {
+        totalsRepository.deleteAllInBatch();
+        TransactionTemplate otherInstance = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<PlatformTotalsService.Reconciliation> ours = otherInstance.execute(status -> {
+                // the other instance has inserted its slots but not committed when we look
+                for (int s = 0; s < 4; s++) {
+                    jdbcTemplate.update("INSERT INTO platform_totals (slot, order_count, revenue, carbon_used, "
+                            + "carbon_saved, user_count, product_count) VALUES (?, 0, 0, 0, 0, 0, 0)", s);
+                }
+                Future<PlatformTotalsService.Reconciliation> started = executor.submit(totals::reconcile);
+                sleep(300);
+                return started;
+            });
+
+            assertThat(ours.get(10, TimeUnit.SECONDS).drifted()).isFalse();
+            assertThat(totalsRepository.count()).isEqualTo(4);
+        } finally {
+            executor.shutdownNow();
+            totals.reconcile();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
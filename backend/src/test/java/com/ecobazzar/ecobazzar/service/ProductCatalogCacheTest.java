@@ -0,0 +1,106 @@
+package com.ecobazzar.ecobazzar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecobazzar.ecobazzar.model.Product;
+import com.ecobazzar.ecobazzar.repository.ProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+// the platform totals seed is MySQL native SQL, so H2 runs in MySQL mode
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product_catalog_cache;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.cache.cache-names=products,productLists",
+        "spring.cache.caffeine.spec=maximumSize=100,recordStats"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnableCaching
+// the JPA test slice switches caching off by default
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@ImportAutoConfiguration({CacheAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Import({ProductService.class, EcoEquivalenceIndex.class, CartTotalsTracker.class, ProductSearchIndex.class,
+        PlatformTotalsService.class, SimpleMeterRegistry.class})
+class ProductCatalogCacheTest {
+
+    @Autowired private ProductService productService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Test
+    void repeatedReadsHitTheCacheUntilTheProductIsSaved() {
+        Product p = new Product();
+        p.setName("Bamboo Toothbrush");
+        p.setPrice(3.0);
+        p.setCarbonImpact(0.2);
+        Long id = productRepository.saveAndFlush(p).getId();
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        productService.getProductView(id);
+        productService.getProductView(id);
+        productService.getEcoCertifiedProducts();
+        productService.getEcoCertifiedProducts();
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(2);
+
+        Product managed = productService.getProductById(id);
+        managed.setPrice(4.0);
+        managed.setEcoCertified(true);
+        productService.saveProduct(managed);
+
+        assertThat(productService.getProductView(id).price()).isEqualTo(4.0);
+        assertThat(productService.getEcoCertifiedProducts()).extracting("id").containsExactly(id);
+
+        productRepository.deleteById(id);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void aReadBeforeTheSaveCommitsDoesNotKeepTheOldPrice() {
+        Product p = new Product();
+        p.setName("Steel Bottle");
+        p.setPrice(12.0);
+        p.setCarbonImpact(1.5);
+        Long id = productRepository.save(p).getId();
+        productService.getProductView(id);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Product managed = productService.getProductById(id);
+            managed.setPrice(9.0);
+            productService.saveProduct(managed);
+            productRepository.flush();
+            // another request reads the product while the new price is not committed yet
+            assertThat(CompletableFuture.supplyAsync(() -> productService.getProductView(id).price()).join())
+                    .isEqualTo(12.0);
+        });
+
+        assertThat(productService.getProductView(id).price()).isEqualTo(9.0);
+        productRepository.deleteById(id);
+    }
+}
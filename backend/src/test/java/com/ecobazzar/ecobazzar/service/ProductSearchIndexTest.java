@@ -0,0 +1,70 @@
+package com.ecobazzar.ecobazzar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ecobazzar.ecobazzar.dto.ProductView;
+import com.ecobazzar.ecobazzar.model.Product;
+import com.ecobazzar.ecobazzar.repository.ProductRepository;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository repository = mock(ProductRepository.class);
+        when(repository.findAll()).thenReturn(List.of(
+                product(1L, "Plastic Water Bottle", "Single use bottle", false, 1.0, 2.5),
+                product(2L, "Steel Water Bottle", "Reusable bottle, lasts for years", true, 12.0, 0.8),
+                product(3L, "Bamboo Toothbrush", "Comes with a water-proof pouch", true, 3.0, 0.1),
+                product(4L, "Glass Bottles", "Pack of two", true, 8.0, 0.5)));
+        index = new ProductSearchIndex(repository);
+        index.rebuild();
+    }
+
+    @Test
+    void ranksNameMatchesAboveDetailMatchesAndFoldsPlurals() {
+        assertThat(ids(index.search("water bottle", ProductSearchIndex.Filter.NONE, 10)))
+                .containsExactly(1L, 2L, 4L, 3L);
+        assertThat(ids(index.search("BOTTLE", ProductSearchIndex.Filter.NONE, 10))).contains(4L);
+    }
+
+    @Test
+    void appliesFiltersAndLimit() {
+        var filter = new ProductSearchIndex.Filter(true, null, 10.0, null, 0.6);
+        assertThat(ids(index.search("bottle", filter, 10))).containsExactly(4L);
+        assertThat(index.search("bottle", ProductSearchIndex.Filter.NONE, 1)).hasSize(1);
+    }
+
+    @Test
+    void followsProductWrites() {
+        index.onProductSaved(product(3L, "Bamboo Bottle", null, true, 3.0, 0.1));
+        index.onProductDeleted(1L);
+
+        assertThat(ids(index.search("toothbrush", ProductSearchIndex.Filter.NONE, 10))).isEmpty();
+        assertThat(ids(index.search("bottle", ProductSearchIndex.Filter.NONE, 10)))
+                .containsExactlyInAnyOrder(2L, 3L, 4L);
+    }
+
+    private static List<Long> ids(List<ProductView> views) {
+        return views.stream().map(ProductView::id).toList();
+    }
+
+    private static Product product(Long id, String name, String details, boolean eco, double price, double carbon) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setDetails(details);
+        p.setEcoCertified(eco);
+        p.setPrice(price);
+        p.setCarbonImpact(carbon);
+        return p;
+    }
+}
@@ -0,0 +1,83 @@
+package com.ecobazzar.ecobazzar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ecobazzar.ecobazzar.model.Order;
+import com.ecobazzar.ecobazzar.repository.OrderRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest(properties = "reports.series.max-buckets=48")
+@Import({TimeSeriesService.class, DailyRollups.class, UserSummaryCache.class, SimpleMeterRegistry.class})
+class TimeSeriesServiceTest {
+
+    // a Wednesday
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 5, 9, 15);
+
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private DailyRollups rollups;
+    @Autowired private TimeSeriesService series;
+
+    @Test
+    void hourBucketsGroupByCreationTimeAndFillGaps() {
+        order(7L, T0, 10.0);
+        order(7L, T0.plusMinutes(30), 5.0);
+        order(8L, T0.plusHours(2), 1.0);
+
+        TimeSeriesService.Series s = series.query(TimeSeriesService.Scope.PLATFORM, null, "hour",
+                "2025-03-05T09:00", "2025-03-05T12:00", "orders,revenue");
+
+        assertThat(s.starts()).hasSize(3);
+        assertThat(s.values()).containsOnlyKeys("orders", "revenue");
+        assertThat((long[]) s.values().get("orders")).containsExactly(2, 0, 1);
+        assertThat((double[]) s.values().get("revenue")).containsExactly(15.0, 0.0, 1.0);
+    }
+
+    @Test
+    void weekBucketsFoldTheUsersDailyRollup() {
+        order(7L, T0, 10.0);
+        order(7L, T0.plusDays(3), 4.0);
+        order(7L, T0.plusDays(7), 2.0);
+        order(8L, T0, 100.0);
+        orderRepository.flush();
+        rollups.backfill(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 1));
+
+        TimeSeriesService.Series s = series.query(TimeSeriesService.Scope.USER, 7L, TimeSeriesService.Bucket.WEEK,
+                T0, T0.plusDays(8), List.of(TimeSeriesService.Metric.REVENUE));
+
+        assertThat(s.from()).isEqualTo(LocalDateTime.of(2025, 3, 3, 0, 0));
+        assertThat(s.starts()).hasSize(2);
+        assertThat((double[]) s.values().get("revenue")).containsExactly(14.0, 2.0);
+    }
+
+    @Test
+    void oversizedRangesAndSellerCarbonAreRejected() {
+        assertThatThrownBy(() -> series.query(TimeSeriesService.Scope.PLATFORM, null, "hour",
+                "2025-03-01", "2025-03-05", null))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> series.query(TimeSeriesService.Scope.SELLER, 3L, "day",
+                null, null, "carbonSaved"))
+                .isInstanceOf(ResponseStatusException.class);
+        Map<String, Object> empty = series.query(TimeSeriesService.Scope.SELLER, 3L, "day", null, null, null).values();
+        assertThat(empty).containsOnlyKeys("orders", "revenue");
+        assertThat((long[]) empty.get("orders")).containsOnly(0L).hasSize(7);
+    }
+
+    private void order(Long userId, LocalDateTime at, double total) {
+        Order o = new Order(null, userId, at.toLocalDate(), 1.0, 0.5, 0.5, total);
+        o.setCreatedAt(at);
+        orderRepository.save(o);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecobazzar.ecobazzar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecobazzar.ecobazzar.security.TokenDenyList;
+import com.ecobazzar.ecobazzar.service.TokenRevocationService.RefreshFamily;
+import com.ecobazzar.ecobazzar.util.JwtUtil;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@Import({TokenRevocationService.class, TokenDenyList.class, SimpleMeterRegistry.class})
+class TokenRevocationServiceTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil("test_secret_key_that_is_long_enough_for_hs256", 60_000, 600_000, 100,
+            new SimpleMeterRegistry());
+
+    @Autowired private TokenRevocationService revocations;
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void revocationIsSingleUseAndSurvivesARebuild() {
+        Claims revoked = jwtUtil.verify(jwtUtil.generateToken("a@example.com", "ROLE_USER", 7L));
+        Claims other = jwtUtil.verify(jwtUtil.generateToken("a@example.com", "ROLE_USER", 7L));
+
+        assertThat(revocations.revoke(revoked)).isTrue();
+        assertThat(revocations.revoke(revoked)).isFalse();
+
+        revocations.rebuild();
+
+        assertThat(revocations.isRevoked(revoked)).isTrue();
+        assertThat(revocations.isRevoked(other)).isFalse();
+    }
+
+    @Test
+    void onlyTheNewestGenerationOfAFamilyRotates() {
+        RefreshFamily first = revocations.startFamily(7L);
+
+        RefreshFamily second = revocations.rotate(first).orElseThrow();
+        assertThat(second.generation()).isEqualTo(1);
+        RefreshFamily third = revocations.rotate(second).orElseThrow();
+
+        // a replayed older token ends the session, so the newest token stops working too
+        assertThat(revocations.rotate(first)).isEmpty();
+        assertThat(revocations.rotate(third)).isEmpty();
+    }
+
+    @Test
+    void anEndedFamilyNoLongerRotates() {
+        RefreshFamily family = revocations.startFamily(7L);
+
+        assertThat(revocations.endFamily(family.id())).isTrue();
+        assertThat(revocations.endFamily(family.id())).isFalse();
+        assertThat(revocations.rotate(family)).isEmpty();
+    }
+}
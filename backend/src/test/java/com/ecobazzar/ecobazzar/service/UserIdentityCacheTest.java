@@ -0,0 +1,54 @@
+package com.ecobazzar.ecobazzar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecobazzar.ecobazzar.model.User;
+import com.ecobazzar.ecobazzar.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@Import({UserIdentityCache.class, SimpleMeterRegistry.class})
+class UserIdentityCacheTest {
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private UserIdentityCache identities;
+
+    // each save commits on its own, so the after-commit eviction actually runs
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void roleChangeIsSeenOnlyAfterEviction() {
+        User u = new User();
+        u.setName("Asha");
+        u.setEmail("asha@example.com");
+        u.setPassword("$2a$10$hash");
+        u.setRole("ROLE_USER");
+        u = userRepository.saveAndFlush(u);
+
+        assertThat(identities.byEmail("asha@example.com")).get()
+                .extracting(UserIdentityCache.UserIdentity::role).isEqualTo("ROLE_USER");
+
+        u.setRole("ROLE_SELLER");
+        userRepository.saveAndFlush(u);
+        assertThat(identities.byId(u.getId()).get().role()).isEqualTo("ROLE_USER");
+
+        identities.evict(u.getId());
+        assertThat(identities.byEmail("asha@example.com").get().role()).isEqualTo("ROLE_SELLER");
+        assertThat(identities.byEmail("nobody@example.com")).isEmpty();
+    }
+
+    @Test
+    void toStringLeavesOutEmailAndHash() {
+        var identity = new UserIdentityCache.UserIdentity(1L, "Asha", "asha@example.com", "ROLE_USER", 0, false,
+                "$2a$10$hash");
+
+        assertThat(identity.toString()).doesNotContain("asha@example.com").doesNotContain("$2a$");
+    }
+}
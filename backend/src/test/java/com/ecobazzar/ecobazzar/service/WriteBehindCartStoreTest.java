@@ -0,0 +1,237 @@
+package com.ecobazzar.ecobazzar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecobazzar.ecobazzar.model.CartItem;
+import com.ecobazzar.ecobazzar.repository.CartRepository;
+
+@DataJpaTest
+// the store writes in its own transactions and reacts to checkout commits and rollbacks
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WriteBehindCartStoreTest {
+
+    @Autowired private CartRepository cartRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM cart_item");
+    }
+
+    @Test
+    void changesAreCoalescedUntilTheFlush() {
+        WriteBehindCartStore store = store(100, 900_000);
+        store.addQuantity(1L, 10L, 1);
+        store.addQuantity(1L, 10L, 2);
+        store.addQuantity(1L, 10L, 3);
+        CartItem gone = store.addQuantity(1L, 11L, 1);
+        store.delete(1L, gone.getId());
+
+        assertThat(rows(1L)).isEmpty();
+        assertThat(store.findByUserId(1L)).extracting(CartItem::getQuantity).containsExactly(6);
+
+        store.flushAndSweep();
+
+        assertThat(rows(1L)).containsExactly(Map.entry(10L, 6));
+    }
+
+    @Test
+    void evictedCartsAreWrittenBackAndReloaded() {
+        WriteBehindCartStore store = store(2, 900_000);
+        store.addQuantity(1L, 10L, 1);
+        store.addQuantity(2L, 20L, 2);
+        // over capacity: the two least recently used carts go, after their changes are written
+        store.addQuantity(3L, 30L, 3);
+
+        assertThat(rows(1L)).containsExactly(Map.entry(10L, 1));
+        assertThat(rows(2L)).containsExactly(Map.entry(20L, 2));
+        assertThat(rows(3L)).isEmpty();
+
+        jdbcTemplate.update("UPDATE cart_item SET quantity = 5 WHERE user_id = 1");
+        assertThat(store.findByUserId(1L)).extracting(CartItem::getQuantity).containsExactly(5);
+    }
+
+    @Test
+    void idleCartsAreEvictedBySweep() throws InterruptedException {
+        WriteBehindCartStore store = store(100, 1);
+        store.addQuantity(1L, 10L, 1);
+
+        Thread.sleep(10);
+        store.flushAndSweep();
+        jdbcTemplate.update("UPDATE cart_item SET quantity = 4 WHERE user_id = 1");
+
+        assertThat(store.findByUserId(1L)).extracting(CartItem::getQuantity).containsExactly(4);
+    }
+
+    @Test
+    void aFailingCartIsQueuedAgainWithoutHoldingBackOthers() {
+        WriteBehindCartStore store = store(100, 900_000);
+        store.addQuantity(1L, 10L, 1);
+        // a row written behind the store's back takes the (user, product) key of the pending insert
+        jdbcTemplate.update("INSERT INTO cart_item (id, user_id, product_id, quantity) VALUES (1000, 1, 10, 9)");
+        store.addQuantity(2L, 20L, 2);
+
+        store.flushAndSweep();
+
+        assertThat(rows(1L)).containsExactly(Map.entry(10L, 9));
+        assertThat(rows(2L)).containsExactly(Map.entry(20L, 2));
+
+        jdbcTemplate.update("DELETE FROM cart_item WHERE id = 1000");
+        store.flushAndSweep();
+
+        assertThat(rows(1L)).containsExactly(Map.entry(10L, 1));
+    }
+
+    @Test
+    void orderedLinesAreNotWrittenBackAfterCheckout() {
+        WriteBehindCartStore store = store(100, 900_000);
+        Long ordered = store.addQuantity(1L, 10L, 2).getId();
+
+        checkout(store, 1L, () -> store.addQuantity(1L, 10L, 5));
+        store.flushAndSweep();
+
+        // the product added again during checkout is a new line with only the new quantity
+        List<CartItem> cart = cartRepository.findByUserId(1L);
+        assertThat(cart).extracting(CartItem::getQuantity).containsExactly(5);
+        assertThat(cart.get(0).getId()).isNotEqualTo(ordered);
+
+        store.addQuantity(1L, 10L, 1);
+        store.flushAndSweep();
+        assertThat(rows(1L)).containsExactly(Map.entry(10L, 6));
+    }
+
+    @Test
+    void aRolledBackCheckoutKeepsTheCart() {
+        WriteBehindCartStore store = store(100, 900_000);
+        Long ordered = store.addQuantity(1L, 10L, 2).getId();
+
+        assertThatThrownBy(() -> checkout(store, 1L, () -> {
+            store.addQuantity(1L, 10L, 5);
+            throw new IllegalStateException("payment failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(store.findByUserId(1L)).extracting(CartItem::getId, CartItem::getQuantity)
+                .containsExactly(tuple(ordered, 7));
+        store.flushAndSweep();
+        assertThat(rows(1L)).containsExactly(Map.entry(10L, 7));
+    }
+
+    @Test
+    void checkoutWaitsOnlyForAWriteBackOfItsOwnCart() throws Exception {
+        GatedJdbcTemplate gated = new GatedJdbcTemplate(jdbcTemplate);
+        WriteBehindCartStore store = new WriteBehindCartStore(cartRepository, gated, transactionManager, 100, 900_000);
+        store.init();
+        Long other = store.addQuantity(2L, 20L, 1).getId();
+        store.flushAndSweep();
+        Long own = store.addQuantity(1L, 10L, 3).getId();
+
+        gated.close();
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> flusher = pool.submit(store::flushAndSweep);
+            assertThat(gated.entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // the running write-back does not hold up another user's checkout
+            pool.submit(() -> checkedOut(store, 2L, other)).get(5, TimeUnit.SECONDS);
+            // but the checkout of the cart being written waits until its rows are committed
+            Future<?> ownCheckout = pool.submit(() -> checkedOut(store, 1L, own));
+            Thread.sleep(100);
+            assertThat(ownCheckout).isNotDone();
+
+            gated.open();
+            flusher.get(5, TimeUnit.SECONDS);
+            ownCheckout.get(5, TimeUnit.SECONDS);
+        } finally {
+            gated.open();
+            pool.shutdownNow();
+        }
+
+        assertThat(rows(1L)).containsExactly(Map.entry(10L, 3));
+        assertThat(store.findByUserId(1L)).isEmpty();
+    }
+
+    private void checkedOut(WriteBehindCartStore store, Long userId, Long cartItemId) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                store.checkedOut(userId, List.of(cartItemId)));
+    }
+
+    // the store side of OrderService.checkout, with a hook for what happens before it commits
+    private void checkout(WriteBehindCartStore store, Long userId, Runnable beforeCommit) {
+        store.flush(userId);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Long> ids = cartRepository.findByUserId(userId).stream().map(CartItem::getId).toList();
+            store.checkedOut(userId, ids);
+            cartRepository.deleteByUserIdAndIdIn(userId, ids);
+            beforeCommit.run();
+        });
+    }
+
+    private WriteBehindCartStore store(int maxUsers, long idleTimeoutMs) {
+        WriteBehindCartStore store = new WriteBehindCartStore(cartRepository, jdbcTemplate, transactionManager,
+                maxUsers, idleTimeoutMs);
+        store.init();
+        return store;
+    }
+
+    // holds batch writes at a gate, to look at the store while a write-back is in flight
+    private static final class GatedJdbcTemplate extends JdbcTemplate {
+        final CountDownLatch entered = new CountDownLatch(1);
+        private volatile CountDownLatch gate;
+
+        GatedJdbcTemplate(JdbcTemplate delegate) {
+            super(delegate.getDataSource());
+        }
+
+        void close() {
+            gate = new CountDownLatch(1);
+        }
+
+        void open() {
+            CountDownLatch g = gate;
+            if (g != null) g.countDown();
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            CountDownLatch g = gate;
+            if (g != null) {
+                entered.countDown();
+                try {
+                    g.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.batchUpdate(sql, batchArgs);
+        }
+    }
+
+    private Map<Long, Integer> rows(Long userId) {
+        Map<Long, Integer> byProduct = new TreeMap<>();
+        jdbcTemplate.query("SELECT product_id, quantity FROM cart_item WHERE user_id = ?",
+                rs -> { byProduct.put(rs.getLong(1), rs.getInt(2)); }, userId);
+        return byProduct;
+    }
+}
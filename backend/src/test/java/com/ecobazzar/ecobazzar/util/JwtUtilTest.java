@@ -0,0 +1,44 @@
+package com.ecobazzar.ecobazzar.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "test_secret_key_that_is_long_enough_for_hs256";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 600_000, 100, registry);
+
+    @Test
+    void repeatVerificationsAreServedFromTheCache() {
+        String token = jwtUtil.generateToken("a@example.com", "ROLE_USER", 7L);
+
+        assertThat(jwtUtil.verify(token).getSubject()).isEqualTo("a@example.com");
+        assertThat(jwtUtil.verify(token).get("userId", Long.class)).isEqualTo(7L);
+
+        assertThat(registry.get("jwt.verify").tag("outcome", "valid").timer().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "jwtClaims").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsTamperedAndExpiredTokensWithoutCachingThem() {
+        String token = jwtUtil.generateToken("a@example.com", "ROLE_USER", 7L);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        String expired = new JwtUtil(SECRET, -120_000, 600_000, 100, new SimpleMeterRegistry())
+                .generateToken("a@example.com", "ROLE_USER", 7L);
+
+        assertThatThrownBy(() -> jwtUtil.verify(tampered)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtUtil.verify(tampered)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtUtil.verify(expired)).isInstanceOf(ExpiredJwtException.class);
+
+        assertThat(registry.get("jwt.verify").tag("outcome", "rejected").timer().count()).isEqualTo(3);
+    }
+}
@@ -1,28 +1,44 @@
-import { HttpInterceptorFn, HttpErrorResponse } from '@angular/common/http';
+import { HttpInterceptorFn, HttpErrorResponse, HttpRequest } from '@angular/common/http';
 import { inject } from '@angular/core';
 import { Router } from '@angular/router';
 import { ToastrService } from 'ngx-toastr';
-import { catchError, throwError } from 'rxjs';
+import { catchError, switchMap, throwError } from 'rxjs';
+import { AuthService } from '../services/auth.service';
 
 export const AuthInterceptor: HttpInterceptorFn = (req, next) => {
   const router = inject(Router);
   const toastr = inject(ToastrService);
+  const auth = inject(AuthService);
 
-  const token = localStorage.getItem('token') || '';
   const skipAuthFor = ['api.cloudinary.com'];
   const shouldSkip = skipAuthFor.some(d => req.url.includes(d));
 
-  if (token && !shouldSkip) {
-    req = req.clone({ setHeaders: { Authorization: `Bearer ${token}` } });
-  }
+  const withToken = (r: HttpRequest<unknown>) => {
+    const token = localStorage.getItem('token') || '';
+    return token && !shouldSkip ? r.clone({ setHeaders: { Authorization: `Bearer ${token}` } }) : r;
+  };
 
-  return next(req).pipe(
+  const sessionExpired = (err: HttpErrorResponse) => {
+    toastr.error('Your session has expired. Please login again.', 'Unauthorized');
+    localStorage.clear();
+    router.navigate(['/login']);
+    return throwError(() => err);
+  };
+
+  return next(withToken(req)).pipe(
     catchError((err: HttpErrorResponse) => {
       if (err.status === 401) {
-  toastr.error('Your session has expired. Please login again.', 'Unauthorized');
-  localStorage.clear();
-  router.navigate(['/login']);
-}
+        // access tokens are short-lived: renew once with the refresh token and replay the request
+        if (!req.url.includes('/api/auth/') && auth.getRefreshToken()) {
+          return auth.refresh().pipe(
+            catchError(() => sessionExpired(err)),
+            switchMap(() => next(withToken(req)))
+          );
+        }
+        if (!req.url.includes('/api/auth/logout')) {
+          return sessionExpired(err);
+        }
+      }
 
  else if (err.status === 403) {
         toastr.error('You are not allowed to access this resource.', 'Forbidden');
@@ -1,10 +1,11 @@
 import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Router } from '@angular/router';
-import { BehaviorSubject, Observable, tap } from 'rxjs';
+import { BehaviorSubject, Observable, finalize, shareReplay, tap } from 'rxjs';
 
 interface LoginResponse {
   token: string;
+  refreshToken?: string;
   role: string;
   name?: string;
   email: string;
@@ -15,6 +16,8 @@ export class AuthService {
   private baseUrl = '/api/auth';
   private loggedIn = new BehaviorSubject<boolean>(this.hasToken());
   loggedIn$ = this.loggedIn.asObservable();
+  // one refresh at a time; concurrent 401s all wait for the same call
+  private refreshing$: Observable<LoginResponse> | null = null;
 
   constructor(private http: HttpClient, private router: Router) {}
 
@@ -26,8 +29,7 @@ export class AuthService {
     return this.http.post<LoginResponse>(`${this.baseUrl}/login`, credentials).pipe(
       tap(res => {
         if (res.token) {
-          localStorage.setItem('token', res.token);
-          localStorage.setItem('role', res.role);
+          this.storeTokens(res);
           localStorage.setItem('email', res.email);
           localStorage.setItem('name', res.name || res.email.split('@')[0] || 'User');
           this.loggedIn.next(true);
@@ -36,7 +38,26 @@ export class AuthService {
     );
   }
 
+  // trades the refresh token for a new access/refresh pair; the old refresh token stops working
+  refresh(): Observable<LoginResponse> {
+    if (!this.refreshing$) {
+      this.refreshing$ = this.http
+        .post<LoginResponse>(`${this.baseUrl}/refresh`, { refreshToken: this.getRefreshToken() })
+        .pipe(
+          tap(res => this.storeTokens(res)),
+          finalize(() => (this.refreshing$ = null)),
+          shareReplay(1)
+        );
+    }
+    return this.refreshing$;
+  }
+
   logout(): void {
+    const refreshToken = this.getRefreshToken();
+    if (this.getToken() || refreshToken) {
+      // revoke server-side; the local session is cleared either way
+      this.http.post(`${this.baseUrl}/logout`, refreshToken ? { refreshToken } : null).subscribe({ error: () => {} });
+    }
     localStorage.clear();
     this.loggedIn.next(false);
     this.router.navigate(['/login']);
@@ -77,4 +98,16 @@ export class AuthService {
   getToken(): string | null {
     return localStorage.getItem('token');
   }
+
+  getRefreshToken(): string | null {
+    return localStorage.getItem('refreshToken');
+  }
+
+  private storeTokens(res: LoginResponse): void {
+    localStorage.setItem('token', res.token);
+    localStorage.setItem('role', res.role);
+    if (res.refreshToken) {
+      localStorage.setItem('refreshToken', res.refreshToken);
+    }
+  }
 }